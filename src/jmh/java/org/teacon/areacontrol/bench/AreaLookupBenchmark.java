@@ -0,0 +1,87 @@
+package org.teacon.areacontrol.bench;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teacon.areacontrol.AreaManager;
+import org.teacon.areacontrol.api.Area;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link AreaManager#findBy(ResourceKey, BlockPos)} against grids of top-level areas,
+ * with a tower of nested areas on the side.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AreaLookupBenchmark {
+
+    @Param({"1", "10000", "100000"})
+    public int areaCount;
+
+    @Param({"32"})
+    public int nestingDepth;
+
+    private ResourceKey<Level> overworld;
+    private BlockPos wildnessFarAway, wildnessBetweenAreas, insideArea, insideDeepestArea;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setup() throws Exception {
+        var areas = new ArrayList<Area>();
+        areas.addAll(SyntheticAreas.grid(this.areaCount));
+        areas.addAll(SyntheticAreas.tower(this.nestingDepth));
+        SyntheticAreas.load(areas);
+        this.overworld = Level.OVERWORLD;
+        // Pick a grid cell in the middle of the grid.
+        var size = SyntheticAreas.gridSize(this.areaCount);
+        var cellX = (size / 2) * SyntheticAreas.CELL;
+        var cellZ = (this.areaCount / size / 2) * SyntheticAreas.CELL;
+        this.wildnessFarAway = new BlockPos(100_000, 64, 100_000);
+        // Part of the gap, but in a chunk that is partially claimed.
+        this.wildnessBetweenAreas = new BlockPos(cellX + SyntheticAreas.CELL - 2, 64, cellZ + 8);
+        this.insideArea = new BlockPos(cellX + 8, 64, cellZ + 8);
+        var center = SyntheticAreas.towerCenter(this.nestingDepth);
+        this.insideDeepestArea = new BlockPos(center, 128, center);
+    }
+
+    @Benchmark
+    public Area findByWildnessFarAway() {
+        return AreaManager.INSTANCE.findBy(this.overworld, this.wildnessFarAway);
+    }
+
+    @Benchmark
+    public Area findByWildnessBetweenAreas() {
+        return AreaManager.INSTANCE.findBy(this.overworld, this.wildnessBetweenAreas);
+    }
+
+    @Benchmark
+    public Area findBySingleArea() {
+        return AreaManager.INSTANCE.findBy(this.overworld, this.insideArea);
+    }
+
+    @Benchmark
+    public Area findByDeeplyNested() {
+        return AreaManager.INSTANCE.findBy(this.overworld, this.insideDeepestArea);
+    }
+
+    @Benchmark
+    public boolean isInUnclaimedChunk() {
+        return AreaManager.INSTANCE.isInUnclaimedChunk(this.overworld, this.wildnessFarAway);
+    }
+}
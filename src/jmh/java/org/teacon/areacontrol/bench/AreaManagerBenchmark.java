@@ -0,0 +1,82 @@
+package org.teacon.areacontrol.bench;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teacon.areacontrol.AreaManager;
+import org.teacon.areacontrol.api.Area;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of operations of {@link AreaManager} that scan more than one chunk bucket,
+ * against grids of top-level areas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AreaManagerBenchmark {
+
+    @Param({"10000", "100000"})
+    public int areaCount;
+
+    @Param({"128", "512"})
+    public int radius;
+
+    private ResourceKey<Level> overworld;
+    private BlockPos center;
+    private int cellX, cellZ;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setup() throws Exception {
+        SyntheticAreas.load(SyntheticAreas.grid(this.areaCount));
+        this.overworld = Level.OVERWORLD;
+        var size = SyntheticAreas.gridSize(this.areaCount);
+        this.cellX = (size / 2) * SyntheticAreas.CELL;
+        this.cellZ = (this.areaCount / size / 2) * SyntheticAreas.CELL;
+        this.center = new BlockPos(this.cellX, 64, this.cellZ);
+    }
+
+    /**
+     * Try claiming an area that overlaps an existing one, which is always rejected and leaves
+     * the manager unchanged.
+     */
+    @Benchmark
+    public boolean addOverlapping() {
+        var area = SyntheticAreas.create("Overlapping", this.cellX - 4, 0, this.cellZ - 4, this.cellX + 4, 8, this.cellZ + 4, null);
+        return AreaManager.INSTANCE.add(area, this.overworld);
+    }
+
+    /**
+     * Claim an area inside an existing one, then remove it again.
+     */
+    @Benchmark
+    public boolean addThenRemoveNested() {
+        var area = SyntheticAreas.create("Nested", this.cellX + 4, 0, this.cellZ + 4, this.cellX + 12, 8, this.cellZ + 12, null);
+        var added = AreaManager.INSTANCE.add(area, this.overworld);
+        if (added) {
+            AreaManager.INSTANCE.remove(area, this.overworld);
+        }
+        return added;
+    }
+
+    @Benchmark
+    public List<Area> getAreaSummariesSurround() {
+        return AreaManager.INSTANCE.getAreaSummariesSurround(this.overworld, this.center, this.radius);
+    }
+}
@@ -0,0 +1,86 @@
+package org.teacon.areacontrol.bench;
+
+import net.minecraft.resources.ResourceLocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teacon.areacontrol.api.Area;
+import org.teacon.areacontrol.api.AreaProperties;
+import org.teacon.areacontrol.impl.AreaChecks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Benchmarks of {@link AreaChecks#checkPropFor} without an actor, i.e. without bypass checks.
+ * Rules are specified on the outermost area of a tower, and the checks run against the innermost
+ * area, so that every lookup has to resolve inherited values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PermissionCheckBenchmark {
+
+    private static final Supplier<Boolean> DEFAULT = () -> Boolean.TRUE;
+
+    @Param({"1", "32"})
+    public int nestingDepth;
+
+    private Area outermost, innermost;
+    private ResourceLocation objectSpecific, modSpecific, unspecified;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setup() throws Exception {
+        var tower = SyntheticAreas.tower(this.nestingDepth);
+        this.outermost = tower.get(0);
+        this.innermost = tower.get(tower.size() - 1);
+        this.outermost.properties.put(AreaProperties.ALLOW_BREAK + ".minecraft:stone", false);
+        this.outermost.properties.put(AreaProperties.ALLOW_BREAK + ".create", false);
+        this.outermost.properties.put(AreaProperties.ALLOW_BREAK, true);
+        SyntheticAreas.load(tower);
+        this.objectSpecific = new ResourceLocation("minecraft", "stone");
+        this.modSpecific = new ResourceLocation("create", "andesite_casing");
+        this.unspecified = new ResourceLocation("minecraft", "dirt");
+    }
+
+    @Benchmark
+    public boolean checkObjectSpecific() {
+        return AreaChecks.checkPropFor(this.innermost, null, AreaProperties.ALLOW_BREAK, this.objectSpecific, DEFAULT);
+    }
+
+    @Benchmark
+    public boolean checkModSpecific() {
+        return AreaChecks.checkPropFor(this.innermost, null, AreaProperties.ALLOW_BREAK, this.modSpecific, DEFAULT);
+    }
+
+    @Benchmark
+    public boolean checkFallbackToProperty() {
+        return AreaChecks.checkPropFor(this.innermost, null, AreaProperties.ALLOW_BREAK, this.unspecified, DEFAULT);
+    }
+
+    @Benchmark
+    public boolean checkFallbackToDefault() {
+        return AreaChecks.checkPropFor(this.innermost, null, AreaProperties.ALLOW_PLACE_BLOCK, this.unspecified, DEFAULT);
+    }
+
+    @Benchmark
+    public boolean checkWildness() {
+        return AreaChecks.checkPropFor(null, null, AreaProperties.ALLOW_BREAK, this.objectSpecific, DEFAULT);
+    }
+
+    @Benchmark
+    public boolean getBoolOfOutermost() {
+        return AreaProperties.getBool(this.outermost, AreaProperties.ALLOW_BREAK);
+    }
+}
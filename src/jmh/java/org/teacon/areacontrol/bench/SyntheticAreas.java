@@ -0,0 +1,126 @@
+package org.teacon.areacontrol.bench;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import org.teacon.areacontrol.AreaManager;
+import org.teacon.areacontrol.api.Area;
+import org.teacon.areacontrol.api.AreaControlAPI;
+import org.teacon.areacontrol.impl.AreaLookupImpl;
+import org.teacon.areacontrol.impl.persistence.AreaRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Generators of synthetic area layouts for benchmarks.
+ * <p>
+ * Top-level areas are laid out on a grid in the overworld, starting at the origin. Each grid cell
+ * is {@link #CELL} blocks wide, and the area in it leaves a gap of {@link #GAP} blocks of wildness
+ * towards the next cell. The gap does not align with chunk borders, so the last chunk of each cell
+ * is only partially claimed. Nested areas are placed in a separate tower far away from the grid.
+ */
+public final class SyntheticAreas {
+
+    public static final int CELL = 64;
+    public static final int GAP = 8;
+    public static final int MIN_Y = -64, MAX_Y = 319;
+
+    /**
+     * Corner of the tower of nested areas.
+     */
+    public static final int TOWER_ORIGIN = -100_000;
+
+    private static boolean bootstrapped = false;
+
+    public static synchronized void bootstrap() {
+        if (!bootstrapped) {
+            SharedConstants.tryDetectVersion();
+            Bootstrap.bootStrap();
+            bootstrapped = true;
+        }
+    }
+
+    public static int gridSize(int count) {
+        return (int) Math.ceil(Math.sqrt(count));
+    }
+
+    /**
+     * @return The given number of top-level areas laid out on a grid.
+     */
+    public static List<Area> grid(int count) {
+        var areas = new ArrayList<Area>(count);
+        var size = gridSize(count);
+        for (int i = 0; i < count; i++) {
+            int x = (i % size) * CELL, z = (i / size) * CELL;
+            areas.add(create("Grid " + i, x, MIN_Y, z, x + CELL - GAP - 1, MAX_Y, z + CELL - GAP - 1, null));
+        }
+        return areas;
+    }
+
+    /**
+     * @return A chain of nested areas, outermost first; each area shrinks by one block on every side.
+     */
+    public static List<Area> tower(int depth) {
+        var areas = new ArrayList<Area>(depth);
+        int size = 2 * depth + 16;
+        Area parent = null;
+        for (int k = 0; k < depth; k++) {
+            int min = TOWER_ORIGIN + k, max = TOWER_ORIGIN + size - k;
+            parent = create("Tower " + k, min, MIN_Y + k, min, max, MAX_Y - k, max, parent);
+            areas.add(parent);
+        }
+        return areas;
+    }
+
+    /**
+     * @return The innermost point of a tower of the given depth.
+     */
+    public static int towerCenter(int depth) {
+        return TOWER_ORIGIN + depth + 8;
+    }
+
+    public static Area create(String name, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, Area parent) {
+        var area = new Area();
+        area.name = name;
+        area.dimension = "minecraft:overworld";
+        area.minX = minX;
+        area.minY = minY;
+        area.minZ = minZ;
+        area.maxX = maxX;
+        area.maxY = maxY;
+        area.maxZ = maxZ;
+        area.belongingArea = parent == null ? null : parent.uid;
+        return area;
+    }
+
+    /**
+     * Reset {@link AreaManager#INSTANCE} to contain exactly the given areas.
+     */
+    public static void load(Collection<Area> areas) throws Exception {
+        bootstrap();
+        AreaManager.INSTANCE.init(new InMemory(areas));
+        AreaManager.INSTANCE.load();
+        AreaControlAPI.areaLookup = AreaLookupImpl.INSTANCE;
+    }
+
+    private record InMemory(Collection<Area> areas) implements AreaRepository {
+
+        @Override
+        public Collection<Area> load() {
+            return List.copyOf(this.areas);
+        }
+
+        @Override
+        public void remove(Area areaToRemove) {
+            // No-op, nothing is persisted
+        }
+
+        @Override
+        public void save(Collection<Area> areas) {
+            // No-op, nothing is persisted
+        }
+    }
+
+    private SyntheticAreas() {}
+}
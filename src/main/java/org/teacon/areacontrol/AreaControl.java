@@ -21,10 +21,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.teacon.areacontrol.api.AreaControlAPI;
 import org.teacon.areacontrol.impl.AreaLookupImpl;
+import org.teacon.areacontrol.impl.CachingGroupProvider;
 import org.teacon.areacontrol.impl.ClientSinglePlayerServerChecker;
 import org.teacon.areacontrol.impl.ServerSinglePlayerServerChecker;
 import org.teacon.areacontrol.impl.VanillaScoreboardTeamGroupProvider;
 import org.teacon.areacontrol.impl.persistence.AreaRepositoryManager;
+import org.teacon.areacontrol.impl.persistence.JournalingAreaRepository;
 import org.teacon.areacontrol.network.ACNetworking;
 
 import java.nio.file.Files;
@@ -66,10 +68,19 @@ public final class AreaControl {
     @SubscribeEvent
     public static void onServerStart(ServerAboutToStartEvent event) {
         AreaControlAPI.areaLookup = AreaLookupImpl.INSTANCE;
-        AreaControlAPI.groupProvider = VanillaScoreboardTeamGroupProvider.INSTANCE;
+        AreaControlAPI.groupProvider = new CachingGroupProvider(VanillaScoreboardTeamGroupProvider.INSTANCE);
         final MinecraftServer server = event.getServer();
         final Path dataDir = server.getWorldPath(SERVER_CONFIG).resolve("area_control");
-        final var repo = AreaRepositoryManager.INSTANCE.create(AreaControlConfig.persistenceMode.get(), dataDir);
+        var repo = AreaRepositoryManager.INSTANCE.create(AreaControlConfig.persistenceMode.get(), dataDir);
+        if (AreaControlConfig.journalPersistence.get()) {
+            if (repo.isIncremental()) {
+                // Changes are already durable once saved; another journal would only sync everything twice.
+                LOGGER.warn("journalPersistence has no effect with persistenceMode '{}', which already writes every change right away.",
+                        AreaControlConfig.persistenceMode.get());
+            } else {
+                repo = new JournalingAreaRepository(repo, dataDir);
+            }
+        }
         AreaManager.INSTANCE.init(repo);
         if (Files.isDirectory(dataDir)) {
             try {
@@ -90,18 +101,16 @@ public final class AreaControl {
     @SubscribeEvent
     public static void onServerSave(LevelEvent.Save event) {
         if (event.getLevel() instanceof ServerLevel level) {
-            try {
-                AreaManager.INSTANCE.saveDimension(level.dimension());
-            } catch (Exception e) {
-                LOGGER.warn("Failed to write claims data.", e);
-            }
+            // Only changed areas are written, and that happens off the server thread.
+            AreaManager.INSTANCE.saveDimension(level.dimension());
         }
     }
 
     @SubscribeEvent
     public static void onServerStop(ServerStoppingEvent event) {
         try {
-            AreaManager.INSTANCE.save();
+            // Blocks until all pending writes are done, so that nothing is lost upon shutdown.
+            AreaManager.INSTANCE.shutdown();
         } catch (Exception e) {
             LOGGER.warn("Failed to write claims data.", e);
         }
@@ -65,12 +65,21 @@ public final class AreaControlCommand {
         return false;
     };
 
+    private static final Predicate<CommandSourceStack> ADMIN = source -> {
+        // /execute as will change the "on-behalf-of" source, so we need to extract the true source.
+        if (((CommandSourceStackAccessor) source).getSource() instanceof ServerPlayer sp) {
+            return PermissionAPI.getPermission(sp, AreaControlPermissions.AC_ADMIN);
+        }
+        return false;
+    };
+
     public AreaControlCommand(CommandDispatcher<CommandSourceStack> dispatcher) {
         dispatcher.register(Commands.literal("ac")
                 .redirect(dispatcher.register(Commands.literal("areacontrol")
                         .then(Commands.literal("about").executes(AreaControlCommand::about))
                         .then(Commands.literal("help").executes(AreaControlCommand::help))
-                        .then(Commands.literal("admin").executes(AreaControlCommand::admin))
+                        .then(Commands.literal("admin").executes(AreaControlCommand::admin)
+                                .then(Commands.literal("stats").requires(ADMIN).executes(AreaControlCommand::adminStats)))
                         .then(Commands.literal("nearby")
                                 .then(Commands.literal("on").executes(context -> AreaControlCommand.nearby(context, true)))
                                 .then(Commands.literal("off").executes(AreaControlCommand::nearbyClear))
@@ -189,6 +198,15 @@ public final class AreaControlCommand {
         return Command.SINGLE_SUCCESS;
     }
 
+    private static int adminStats(CommandContext<CommandSourceStack> context) {
+        var hits = AreaControlPlayerTracker.INSTANCE.getLocationCacheHits();
+        var misses = AreaControlPlayerTracker.INSTANCE.getLocationCacheMisses();
+        var hitRate = hits + misses == 0 ? 0.0 : 100.0 * hits / (hits + misses);
+        context.getSource().sendSuccess(() -> Component.translatable("area_control.admin.stats.location_cache",
+                hits, misses, String.format("%.2f", hitRate)), false);
+        return Command.SINGLE_SUCCESS;
+    }
+
     private static int nearby(CommandContext<CommandSourceStack> context, boolean permanent) throws CommandSyntaxException {
         final var src = context.getSource();
         final var server = src.getServer();
@@ -503,7 +521,8 @@ public final class AreaControlCommand {
             int count = 0;
             for (var profile : profiles) {
                 var uid = profile.getId();
-                String message = !area.owners.contains(uid) && area.owners.add(uid) ? "area_control.claim.owner.added" : "area_control.claim.owner.existed";
+                boolean changed = AreaManager.INSTANCE.addOwner(area, uid);
+                String message = changed ? "area_control.claim.owner.added" : "area_control.claim.owner.existed";
                 src.sendSuccess(() -> Component.translatable(message, area.name, Util.getOwnerName(profile, src.getServer().getPlayerList())), false);
             }
             return count;
@@ -522,7 +541,8 @@ public final class AreaControlCommand {
             return 0;
         } else if (AreaChecks.isACtrlAreaOwner(player, area)) {
             final String group = context.getArgument("group", String.class);
-            String message = !area.ownerGroups.contains(group) && area.ownerGroups.add(group) ? "area_control.claim.owner.added" : "area_control.claim.owner.existed";
+            boolean changed = AreaManager.INSTANCE.addOwnerGroup(area, group);
+            String message = changed ? "area_control.claim.owner.added" : "area_control.claim.owner.existed";
             src.sendSuccess(() -> Component.translatable(message, area.name, group), false);
             return Command.SINGLE_SUCCESS;
         } else {
@@ -542,7 +562,8 @@ public final class AreaControlCommand {
             final var profiles = GameProfileArgument.getGameProfiles(context, "player");
             int count = 0;
             for (var profile : profiles) {
-                String message = area.owners.remove(profile.getId()) ? "area_control.claim.owner.removed" : "area_control.claim.owner.not_yet";
+                boolean changed = AreaManager.INSTANCE.removeOwner(area, profile.getId());
+                String message = changed ? "area_control.claim.owner.removed" : "area_control.claim.owner.not_yet";
                 src.sendSuccess(() -> Component.translatable(message, area.name, Util.getOwnerName(profile, src.getServer().getPlayerList())), false);
             }
             return count;
@@ -561,7 +582,8 @@ public final class AreaControlCommand {
             return 0;
         } else if (AreaChecks.isACtrlAreaOwner(player, area)) {
             final var group = context.getArgument("group", String.class);
-            String message = area.ownerGroups.remove(group) ? "area_control.claim.owner.removed" : "area_control.claim.owner.not_yet";
+            boolean changed = AreaManager.INSTANCE.removeOwnerGroup(area, group);
+            String message = changed ? "area_control.claim.owner.removed" : "area_control.claim.owner.not_yet";
             src.sendSuccess(() -> Component.translatable(message, area.name, group), false);
             return Command.SINGLE_SUCCESS;
         } else {
@@ -601,7 +623,8 @@ public final class AreaControlCommand {
             int count = 0;
             for (var profile : profiles) {
                 var uid = profile.getId();
-                String message = !area.owners.contains(uid) && area.builders.add(uid) ? "area_control.claim.builder.added" : "area_control.claim.builder.existed";
+                boolean changed = !area.owners.contains(uid) && AreaManager.INSTANCE.addBuilder(area, uid);
+                String message = changed ? "area_control.claim.builder.added" : "area_control.claim.builder.existed";
                 src.sendSuccess(() -> Component.translatable(message, area.name, Util.getOwnerName(profile, src.getServer().getPlayerList())), false);
             }
             return count;
@@ -620,7 +643,8 @@ public final class AreaControlCommand {
             return 0;
         } else if (AreaChecks.isACtrlAreaOwner(player, area)) {
             final var group = context.getArgument("group", String.class);
-            String message = !area.builderGroups.contains(group) && area.builderGroups.add(group) ? "area_control.claim.builder.added" : "area_control.claim.builder.existed";
+            boolean changed = AreaManager.INSTANCE.addBuilderGroup(area, group);
+            String message = changed ? "area_control.claim.builder.added" : "area_control.claim.builder.existed";
             src.sendSuccess(() -> Component.translatable(message, area.name, group), false);
             return Command.SINGLE_SUCCESS;
         } else {
@@ -641,7 +665,7 @@ public final class AreaControlCommand {
             int count = 0;
             for (var profile : profiles) {
                 String message;
-                if (area.builders.remove(profile.getId())) {
+                if (AreaManager.INSTANCE.removeBuilder(area, profile.getId())) {
                     message = "area_control.claim.builder.removed";
                     count++;
                 } else {
@@ -665,7 +689,8 @@ public final class AreaControlCommand {
             return 0;
         } else if (AreaChecks.isACtrlAreaOwner(player, area)) {
             final var group = context.getArgument("group", String.class);
-            String message = area.builderGroups.remove(group) ? "area_control.claim.builder.removed" : "area_control.claim.builder.not_yet";
+            boolean changed = AreaManager.INSTANCE.removeBuilderGroup(area, group);
+            String message = changed ? "area_control.claim.builder.removed" : "area_control.claim.builder.not_yet";
             src.sendSuccess(() -> Component.translatable(message, area.name, group), false);
             return Command.SINGLE_SUCCESS;
         } else {
@@ -724,7 +749,7 @@ public final class AreaControlCommand {
         } else if (AreaChecks.isACtrlAreaBuilder(player, area)) {
             final String prop = context.getArgument("property", String.class);
             final String value = context.getArgument("value", String.class);
-            final Object oldValue = area.properties.put(prop, value);
+            final Object oldValue = AreaManager.INSTANCE.setProperty(area, prop, value);
             src.sendSuccess(() -> Component.translatable("area_control.claim.property.update",
                     area.name, prop, value, Objects.toString(oldValue)), false);
             return Command.SINGLE_SUCCESS;
@@ -743,7 +768,7 @@ public final class AreaControlCommand {
             return 0;
         } else if (AreaChecks.isACtrlAreaBuilder(player, area)) {
             final String prop = context.getArgument("property", String.class);
-            final Object oldValue = area.properties.remove(prop);
+            final Object oldValue = AreaManager.INSTANCE.unsetProperty(area, prop);
             src.sendSuccess(() -> Component.translatable("area_control.claim.property.unset",
                     area.name, prop, Objects.toString(oldValue)), false);
             return Command.SINGLE_SUCCESS;
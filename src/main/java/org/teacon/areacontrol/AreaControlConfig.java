@@ -9,6 +9,10 @@ public class AreaControlConfig {
 
     public static ForgeConfigSpec.ConfigValue<String> persistenceMode;
 
+    public static ForgeConfigSpec.BooleanValue journalPersistence;
+
+    public static ForgeConfigSpec.IntValue loadingThreads;
+
     public static ForgeConfigSpec.ConfigValue<String> areaClaimTool;
 
     public static ForgeConfigSpec.ConfigValue<String> groupProvider;
@@ -25,9 +29,15 @@ public class AreaControlConfig {
         disableInSinglePlayer = configSpec.comment("Disable nearly all protection measures when in singleplayer.")
                 .translation("area_control.config.disable_in_single_player")
                 .define("disableInSinglePlayer", true);
-        persistenceMode = configSpec.comment("The format in which the area data are stored. Currently supports json and toml.")
+        persistenceMode = configSpec.comment("The format in which the area data are stored. Currently supports json, toml and binary.")
                 .translation("area_control.config.persistence_mode")
                 .define("persistenceMode", "toml");
+        journalPersistence = configSpec.comment("Record every change to areas in a journal right away, and pass them to the storage chosen by persistenceMode later in background. Makes changes survive crashes between world saves. Ignored for the binary mode, which journals on its own.")
+                .translation("area_control.config.journal_persistence")
+                .define("journalPersistence", false);
+        loadingThreads = configSpec.comment("Number of threads used for reading claim files of the json and toml modes upon server start. 0 means choosing automatically based on the number of CPU cores; 1 means reading them one by one.")
+                .translation("area_control.config.loading_threads")
+                .defineInRange("loadingThreads", 0, 0, 64);
         areaClaimTool = configSpec.comment("The item id of the item that should be used when marking areas for claiming. For example: minecraft:stick.")
                 .translation("area_control.config.area_claim_tool")
                 .define("areaClaimTool", "minecraft:stick", input -> {
@@ -18,6 +18,9 @@ import org.teacon.areacontrol.api.Area;
 import org.teacon.areacontrol.api.AreaProperties;
 import org.teacon.areacontrol.impl.AreaChecks;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
 @Mod.EventBusSubscriber(modid = "area_control")
 public final class AreaControlEventHandlers {
     @SubscribeEvent(priority = EventPriority.HIGHEST)
@@ -29,15 +32,23 @@ public final class AreaControlEventHandlers {
         //      be the #1 source of off-thread spawning.
         //   2. No operations here is modifying underlying states of any objects, unless
         //      someone is overriding Entity.blockPosition (m_142538_).
-        // Further, AreaManager.findBy is synchronized.
+        // Further, AreaManager.findBy only reads from an immutable snapshot and never locks.
         if (!event.loadedFromDisk() && !event.getLevel().isClientSide()) {
             final var entityInQuestion = event.getEntity();
             if (entityInQuestion instanceof Player) {
                 return;
             }
-            final Area targetArea = AreaManager.INSTANCE.findBy(event.getLevel().dimension(), event.getEntity().blockPosition());
-            final var entityId = ForgeRegistries.ENTITY_TYPES.getKey(entityInQuestion.getType());
-            if (!AreaChecks.checkPropFor(targetArea, null, AreaProperties.ALLOW_SPAWN, entityId, AreaControlConfig.allowSpawnEntity)) {
+            final var dim = event.getLevel().dimension();
+            final var pos = entityInQuestion.blockPosition();
+            if (AreaManager.INSTANCE.isInUnclaimedChunk(dim, pos)) {
+                // Wildness has no properties, so only the config default applies.
+                if (!AreaControlConfig.allowSpawnEntity.get()) {
+                    event.setCanceled(true);
+                }
+                return;
+            }
+            final Area targetArea = AreaManager.INSTANCE.findBy(dim, pos);
+            if (!AreaChecks.checkPropFor(targetArea, null, AreaProperties.ALLOW_SPAWN, entityInQuestion.getType(), ForgeRegistries.ENTITY_TYPES, AreaControlConfig.allowSpawnEntity)) {
                 event.setCanceled(true);
             }
         }
@@ -50,8 +61,7 @@ public final class AreaControlEventHandlers {
         }
         final Area targetArea = AreaManager.INSTANCE.findBy(event.getLevel(), event.getPos());
         final var targetType = event.getTarget().getType();
-        final var targetTypeId = ForgeRegistries.ENTITY_TYPES.getKey(targetType);
-        if (!AreaChecks.checkPropFor(targetArea, event.getEntity(), AreaProperties.ALLOW_INTERACT_ENTITY, targetTypeId, AreaControlConfig.allowInteractEntity)) {
+        if (!AreaChecks.checkPropFor(targetArea, event.getEntity(), AreaProperties.ALLOW_INTERACT_ENTITY, targetType, ForgeRegistries.ENTITY_TYPES, AreaControlConfig.allowInteractEntity)) {
             event.setCanceled(true);
         }
     }
@@ -63,8 +73,7 @@ public final class AreaControlEventHandlers {
         }
         final Area targetArea = AreaManager.INSTANCE.findBy(event.getLevel(), event.getPos());
         final var targetType = event.getTarget().getType();
-        final var targetTypeId = ForgeRegistries.ENTITY_TYPES.getKey(targetType);
-        if (!AreaChecks.checkPropFor(targetArea, event.getEntity(), AreaProperties.ALLOW_INTERACT_ENTITY, targetTypeId, AreaControlConfig.allowInteractEntity)) {
+        if (!AreaChecks.checkPropFor(targetArea, event.getEntity(), AreaProperties.ALLOW_INTERACT_ENTITY, targetType, ForgeRegistries.ENTITY_TYPES, AreaControlConfig.allowInteractEntity)) {
             event.setCanceled(true);
         }
     }
@@ -77,8 +86,7 @@ public final class AreaControlEventHandlers {
         final var p = event.getPlayer();
         final Area targetArea = AreaManager.INSTANCE.findBy(event.getLevel(), event.getPos());
         final var block = event.getLevel().getBlockState(event.getPos());
-        final var blockId = ForgeRegistries.BLOCKS.getKey(block.getBlock());
-        var allowed = AreaChecks.checkPropFor(targetArea, p, AreaProperties.ALLOW_BREAK, blockId, AreaControlConfig.allowBreakBlock);
+        var allowed = AreaChecks.checkPropFor(targetArea, p, AreaProperties.ALLOW_BREAK, block.getBlock(), ForgeRegistries.BLOCKS, AreaControlConfig.allowBreakBlock);
         if (!allowed) {
             p.displayClientMessage(Component.translatable("area_control.notice.break_block_disabled", ObjectArrays.EMPTY_ARRAY), true);
             event.setCanceled(true);
@@ -93,8 +101,7 @@ public final class AreaControlEventHandlers {
         final var p = event.getEntity();
         final Area targetArea = AreaManager.INSTANCE.findBy(event.getLevel(), event.getPos());
         final var block = event.getLevel().getBlockState(event.getPos());
-        final var blockId = ForgeRegistries.BLOCKS.getKey(block.getBlock());
-        var allowed = AreaChecks.checkPropFor(targetArea, p, AreaProperties.ALLOW_CLICK, blockId, AreaControlConfig.allowClickBlock);
+        var allowed = AreaChecks.checkPropFor(targetArea, p, AreaProperties.ALLOW_CLICK, block.getBlock(), ForgeRegistries.BLOCKS, AreaControlConfig.allowClickBlock);
         if (!allowed) {
             p.displayClientMessage(Component.translatable("area_control.notice.click_block_disabled", ObjectArrays.EMPTY_ARRAY), true);
             event.setCanceled(true);
@@ -109,8 +116,7 @@ public final class AreaControlEventHandlers {
         final var player = event.getEntity();
         final Area targetArea = AreaManager.INSTANCE.findBy(event.getLevel(), event.getPos());
         final var block = event.getLevel().getBlockState(event.getPos());
-        final var blockId = ForgeRegistries.BLOCKS.getKey(block.getBlock());
-        var allowed = AreaChecks.checkPropFor(targetArea, player, AreaProperties.ALLOW_ACTIVATE, blockId, AreaControlConfig.allowActivateBlock);
+        var allowed = AreaChecks.checkPropFor(targetArea, player, AreaProperties.ALLOW_ACTIVATE, block.getBlock(), ForgeRegistries.BLOCKS, AreaControlConfig.allowActivateBlock);
         if (!allowed) {
             player.displayClientMessage(Component.translatable("area_control.notice.activate_block_disabled", ObjectArrays.EMPTY_ARRAY), true);
             event.setCanceled(true);
@@ -125,8 +131,7 @@ public final class AreaControlEventHandlers {
         final var p = event.getEntity();
         final Area targetArea = AreaManager.INSTANCE.findBy(event.getLevel(), event.getPos());
         final var theItem = event.getItemStack().getItem();
-        final var itemId = ForgeRegistries.ITEMS.getKey(theItem);
-        var allowed = AreaChecks.checkPropFor(targetArea, p, AreaProperties.ALLOW_USE_ITEM, itemId, AreaControlConfig.allowUseItem);
+        var allowed = AreaChecks.checkPropFor(targetArea, p, AreaProperties.ALLOW_USE_ITEM, theItem, ForgeRegistries.ITEMS, AreaControlConfig.allowUseItem);
         if (!allowed) {
             p.displayClientMessage(Component.translatable("area_control.notice.use_item_disabled", ObjectArrays.EMPTY_ARRAY), true);
             event.setCanceled(true);
@@ -151,9 +156,8 @@ public final class AreaControlEventHandlers {
         }
         final Area targetArea = AreaManager.INSTANCE.findBy(event.getLevel(), event.getPos());
         final var block = event.getLevel().getBlockState(event.getPos());
-        final var blockId = ForgeRegistries.BLOCKS.getKey(block.getBlock());
         final var placer = event.getEntity();
-        var allowed = AreaChecks.checkPropFor(targetArea, placer, AreaProperties.ALLOW_PLACE_BLOCK, blockId, AreaControlConfig.allowPlaceBlock);
+        var allowed = AreaChecks.checkPropFor(targetArea, placer, AreaProperties.ALLOW_PLACE_BLOCK, block.getBlock(), ForgeRegistries.BLOCKS, AreaControlConfig.allowPlaceBlock);
         if (!allowed) {
             // TODO Client will falsely report item being consumed; however it will return to normal if you click again in inventory GUI
             event.setCanceled(true);
@@ -180,16 +184,30 @@ public final class AreaControlEventHandlers {
             return;
         }
         final Area targetArea = AreaManager.INSTANCE.findBy(event.getLevel(), event.getExplosion().getPosition());
+        final var affectedBlocks = event.getAffectedBlocks();
         if (!AreaChecks.checkPropFor(targetArea, null, AreaProperties.ALLOW_EXPLOSION_AFFECT_BLOCKS, null, null)) {
-            event.getAffectedBlocks().clear();
-        } else {
-            for (var itr = event.getAffectedBlocks().iterator(); itr.hasNext();) {
-                BlockPos affected = itr.next();
-                final Area a = AreaManager.INSTANCE.findBy(event.getLevel(), affected);
-                if (!AreaChecks.checkPropFor(a, null, AreaProperties.ALLOW_EXPLOSION_AFFECT_ENTITIES, null, null)) {
-                    itr.remove();
+            affectedBlocks.clear();
+        } else if (!affectedBlocks.isEmpty()) {
+            // Large explosions affect thousands of blocks, but usually only a handful of areas.
+            // Resolve all positions at once, and check each distinct area (including wildness) only once.
+            final Area[] areas = AreaManager.INSTANCE.findBy(event.getLevel().dimension(), affectedBlocks);
+            final var verdicts = new IdentityHashMap<Area, Boolean>();
+            final var remaining = new ArrayList<BlockPos>(affectedBlocks.size());
+            for (int i = 0; i < areas.length; i++) {
+                final Area a = areas[i];
+                var allowed = verdicts.get(a);
+                if (allowed == null) {
+                    allowed = AreaChecks.checkPropFor(a, null, AreaProperties.ALLOW_EXPLOSION_AFFECT_ENTITIES, null, null);
+                    verdicts.put(a, allowed);
+                }
+                if (allowed) {
+                    remaining.add(affectedBlocks.get(i));
                 }
             }
+            if (remaining.size() != affectedBlocks.size()) {
+                affectedBlocks.clear();
+                affectedBlocks.addAll(remaining);
+            }
         }
         if (!AreaChecks.checkPropFor(targetArea, null, AreaProperties.ALLOW_EXPLOSION_AFFECT_ENTITIES, null, null)) {
             event.getAffectedEntities().clear();
@@ -200,10 +218,9 @@ public final class AreaControlEventHandlers {
     public static void tryRide(EntityMountEvent event) {
         if (event.isMounting() && !event.getLevel().isClientSide) {
             var vehicle = event.getEntityBeingMounted();
-            var entityId = ForgeRegistries.ENTITY_TYPES.getKey(vehicle.getType());
             var area = AreaManager.INSTANCE.findBy(event.getLevel(), vehicle.blockPosition());
             var rider = event.getEntityMounting();
-            if (!AreaChecks.checkPropFor(area, rider, AreaProperties.ALLOW_RIDE, entityId, AreaControlConfig.allowRideEntity)) {
+            if (!AreaChecks.checkPropFor(area, rider, AreaProperties.ALLOW_RIDE, vehicle.getType(), ForgeRegistries.ENTITY_TYPES, AreaControlConfig.allowRideEntity)) {
                 if (rider instanceof Player p) {
                     p.displayClientMessage(Component.translatable("area_control.notice.ride_disabled", vehicle.getDisplayName()), true);
                 }
@@ -8,8 +8,11 @@ import net.minecraft.network.chat.Style;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.level.Level;
+import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
@@ -25,8 +28,12 @@ import org.slf4j.Marker;
 import org.slf4j.MarkerFactory;
 import org.teacon.areacontrol.api.Area;
 import org.teacon.areacontrol.api.AreaProperties;
+import org.teacon.areacontrol.api.event.AreaEnterEvent;
+import org.teacon.areacontrol.api.event.AreaLeaveEvent;
 import org.teacon.areacontrol.impl.AreaChecks;
 import org.teacon.areacontrol.impl.AreaMath;
+import org.teacon.areacontrol.impl.AreaRoleCache;
+import org.teacon.areacontrol.impl.CachingGroupProvider;
 import org.teacon.areacontrol.network.ACNetworking;
 import org.teacon.areacontrol.network.ACSendCurrentSelection;
 import org.teacon.areacontrol.network.ACSendNearbyArea;
@@ -34,10 +41,12 @@ import org.teacon.areacontrol.network.ACSendNearbyArea;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 @Mod.EventBusSubscriber(modid = "area_control")
 public enum AreaControlPlayerTracker {
@@ -62,7 +71,16 @@ public enum AreaControlPlayerTracker {
                             .withHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, Component.literal("/ac current bypass none")))
                             .withClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/ac current bypass none"))));
 
-    private final Map<UUID, UUID> playerLocation = new ConcurrentHashMap<>();
+    /**
+     * Last known location of each player, along with the area resolved for that location.
+     */
+    private final Map<UUID, PlayerLocation> playerLocation = new ConcurrentHashMap<>();
+    private final LongAdder locationCacheHits = new LongAdder();
+    private final LongAdder locationCacheMisses = new LongAdder();
+    /**
+     * Result of the last inventory scan of each player, for players who are in an area that denies possessing some items.
+     */
+    private final Map<UUID, PossessionScan> possessionScans = new ConcurrentHashMap<>();
     private final Set<UUID> playersWithExt = ConcurrentHashMap.newKeySet();
     /**
      * Set of players with global exemption enabled.
@@ -77,14 +95,33 @@ public enum AreaControlPlayerTracker {
      */
     private final Set<UUID> playersWithWildnessExemption = ConcurrentHashMap.newKeySet();
 
+    /**
+     * The area resolved for a block position, valid as long as the area index stays at the same version.
+     */
+    private record PlayerLocation(ResourceKey<Level> dimension, long blockPos, long indexVersion, @Nullable Area area) {
+
+        boolean isAt(ResourceKey<Level> dimension, long blockPos, long indexVersion) {
+            return this.blockPos == blockPos && this.indexVersion == indexVersion && this.dimension == dimension;
+        }
+    }
+
+    /**
+     * Items a player had right after their inventory was scanned in the given area, with properties
+     * of the given generation. Nothing needs to be seized as long as none of these changes.
+     */
+    private record PossessionScan(Area area, long generation, Item[] items) {}
+
     @SubscribeEvent
     public static void onPlayerLoggedIn(PlayerEvent.PlayerLoggedInEvent event) {
-        var player = event.getEntity();
-        var currentArea = AreaManager.INSTANCE.findBy(player.level(), player.blockPosition());
-        if (currentArea == null) {
-            INSTANCE.playerLocation.remove(player.getGameProfile().getId());
-        } else {
-            INSTANCE.playerLocation.put(player.getGameProfile().getId(), currentArea.uid);
+        INSTANCE.playerLocation.remove(event.getEntity().getGameProfile().getId());
+        INSTANCE.resolveLocation(event.getEntity(), false);
+    }
+
+    @SubscribeEvent
+    public static void onAreaEnter(AreaEnterEvent event) {
+        var area = event.getArea();
+        if (AreaProperties.getBool(area, "area.display_welcome_message")) {
+            event.getEntity().displayClientMessage(Component.translatable("area_control.claim.welcome", area.name), true);
         }
     }
 
@@ -92,36 +129,19 @@ public enum AreaControlPlayerTracker {
     public static void onPlayerTick(TickEvent.PlayerTickEvent event) {
         if (event.side == LogicalSide.SERVER && event.phase == TickEvent.Phase.START) {
             var player = event.player;
-            var playerId = player.getGameProfile().getId();
-            var prevAreaId = INSTANCE.playerLocation.get(playerId);
-
-            var prevArea = AreaManager.INSTANCE.findBy(prevAreaId);
-            var currentArea = AreaManager.INSTANCE.findBy(player.level(), player.blockPosition());
-            if (prevArea != currentArea) {
-                if (currentArea == null) {
-                    INSTANCE.playerLocation.remove(playerId);
-                } else {
-                    INSTANCE.playerLocation.put(playerId, currentArea.uid);
-                    if (AreaProperties.getBool(currentArea, "area.display_welcome_message")) {
-                        player.displayClientMessage(Component.translatable("area_control.claim.welcome", currentArea.name), true);
-                    }
-                }
-            }
+            var currentArea = INSTANCE.resolveLocation(player, true);
 
             // Seize items if disallowed
-            var mainInv = player.getInventory();
-            AreaChecks.checkInv(mainInv.items, currentArea, player);
-            AreaChecks.checkInv(mainInv.armor, currentArea, player);
-            AreaChecks.checkInv(mainInv.offhand, currentArea, player);
+            INSTANCE.checkPossession(player, currentArea);
             // Seize vehicles if disallowed
             var riding = player.getVehicle();
-            if (riding != null && !AreaChecks.checkPropFor(currentArea, player, AreaProperties.ALLOW_RIDE, ForgeRegistries.ENTITY_TYPES.getKey(riding.getType()), AreaControlConfig.allowRideEntity)) {
+            if (riding != null && !AreaChecks.checkPropFor(currentArea, player, AreaProperties.ALLOW_RIDE, riding.getType(), ForgeRegistries.ENTITY_TYPES, AreaControlConfig.allowRideEntity)) {
                 player.displayClientMessage(Component.translatable("area_control.notice.ride_disabled", riding.getDisplayName()), true);
                 player.stopRiding();
             }
 
             // 检查玩家的 Bypass 状态并更新。
-            INSTANCE.updatePlayerExemptionStatus(player);
+            INSTANCE.updatePlayerExemptionStatus(player, currentArea);
         }
     }
 
@@ -131,12 +151,106 @@ public enum AreaControlPlayerTracker {
         var playerId = player.getGameProfile().getId();
         INSTANCE.undoMarkPlayer(playerId);
         INSTANCE.playerLocation.remove(playerId);
+        INSTANCE.possessionScans.remove(playerId);
+        AreaRoleCache.INSTANCE.invalidate(playerId);
+        CachingGroupProvider.invalidate(playerId);
         if (player instanceof ServerPlayer sp) {
             INSTANCE.clearExemptFor(sp);
         }
     }
 
-    private void updatePlayerExemptionStatus(Player p) {
+    /**
+     * Resolve the area at the block position of the given player. The result is cached per player,
+     * and the area index is only queried again after the player crosses a block boundary, changes
+     * dimension, or when the area index itself has changed.
+     *
+     * @param fireEvents Whether to fire {@link AreaLeaveEvent} and {@link AreaEnterEvent} if the area
+     *                   differs from the last resolved one
+     */
+    private @Nullable Area resolveLocation(Player player, boolean fireEvents) {
+        var playerId = player.getGameProfile().getId();
+        var dim = player.level().dimension();
+        var blockPos = player.blockPosition();
+        var packedPos = blockPos.asLong();
+        // Read the version before querying, so that a concurrent change can only make the new entry stale.
+        var indexVersion = AreaManager.INSTANCE.getIndexVersion();
+        var cached = this.playerLocation.get(playerId);
+        if (cached != null && cached.isAt(dim, packedPos, indexVersion)) {
+            this.locationCacheHits.increment();
+            return cached.area;
+        }
+        this.locationCacheMisses.increment();
+        var area = AreaManager.INSTANCE.findBy(dim, blockPos);
+        this.playerLocation.put(playerId, new PlayerLocation(dim, packedPos, indexVersion, area));
+        var prevArea = cached == null ? null : cached.area;
+        if (fireEvents && prevArea != area) {
+            if (prevArea != null) {
+                MinecraftForge.EVENT_BUS.post(new AreaLeaveEvent(player, prevArea, area));
+            }
+            if (area != null) {
+                MinecraftForge.EVENT_BUS.post(new AreaEnterEvent(player, area, prevArea));
+            }
+        }
+        return area;
+    }
+
+    /**
+     * Seize items that the player may not possess in the given area. The inventory is only scanned
+     * if the area denies possessing anything, and then only if the area, its properties or the items
+     * in the inventory have changed since the last scan.
+     */
+    private void checkPossession(Player player, @Nullable Area currentArea) {
+        var playerId = player.getGameProfile().getId();
+        // Read the generation before checking, so that a concurrent change can only make the new entry stale.
+        var generation = AreaProperties.getGeneration();
+        if (!AreaProperties.hasTargetedDenial(currentArea, AreaProperties.ALLOW_POSSESS)
+                || this.hasBypassModeOnForArea(player, currentArea)) {
+            // Everything is allowed; scan again once this is no longer the case.
+            this.possessionScans.remove(playerId);
+            return;
+        }
+        var inv = player.getInventory();
+        var last = this.possessionScans.get(playerId);
+        if (last != null && last.area == currentArea && last.generation == generation && hasSameItems(inv, last.items)) {
+            return;
+        }
+        AreaChecks.checkInv(inv.items, currentArea, player);
+        AreaChecks.checkInv(inv.armor, currentArea, player);
+        AreaChecks.checkInv(inv.offhand, currentArea, player);
+        var items = new Item[inv.items.size() + inv.armor.size() + inv.offhand.size()];
+        int i = 0;
+        for (var compartment : List.of(inv.items, inv.armor, inv.offhand)) {
+            for (var stack : compartment) {
+                items[i++] = stack.getItem();
+            }
+        }
+        this.possessionScans.put(playerId, new PossessionScan(currentArea, generation, items));
+    }
+
+    private static boolean hasSameItems(Inventory inv, Item[] items) {
+        if (items.length != inv.items.size() + inv.armor.size() + inv.offhand.size()) {
+            return false;
+        }
+        int i = 0;
+        for (var compartment : List.of(inv.items, inv.armor, inv.offhand)) {
+            for (var stack : compartment) {
+                if (stack.getItem() != items[i++]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public long getLocationCacheHits() {
+        return this.locationCacheHits.sum();
+    }
+
+    public long getLocationCacheMisses() {
+        return this.locationCacheMisses.sum();
+    }
+
+    private void updatePlayerExemptionStatus(Player p, @Nullable Area currArea) {
         var playerId = p.getGameProfile().getId();
         // 玩家 Reach Distance（默认 6 格，需要动态获取）的两倍范围，并且平方
         // Reach distance 选取 Block Reach 和 Entity Reach 中的较大值
@@ -166,7 +280,6 @@ public enum AreaControlPlayerTracker {
                 p.displayClientMessage(HOW_TO_TURN_ON, false);
             }
         }
-        var currArea = AreaManager.INSTANCE.findBy(this.playerLocation.get(playerId));
         // 如果玩家是全局 Bypass：
         if (this.playersWithGlobalExempt.contains(playerId)) {
             if (currArea != null) {
@@ -188,7 +301,7 @@ public enum AreaControlPlayerTracker {
                 }
             } else {
                 // // 玩家如果是切换后领地/野外的 Builder，或者拥有 area_control.command.admin 权限（注意野外）
-                if (AreaChecks.isACtrlAdmin((ServerPlayer) p)) {
+                if (AreaRoleCache.INSTANCE.isAdmin((ServerPlayer) p)) {
                     // 则自动为该领地/野外开启 Bypass 模式（若还没有），并发送消息
                     if (this.playersWithWildnessExemption.add(playerId)) {
                         p.displayClientMessage(Component.translatable("area_control.bypass.wildness.passive_on"), false);
@@ -247,8 +360,9 @@ public enum AreaControlPlayerTracker {
     }
 
     public @Nullable Area getCurrentAreaForPlayer(UUID playerUUID) {
-        var areaId = this.playerLocation.get(playerUUID);
-        return AreaManager.INSTANCE.findBy(areaId);
+        var location = this.playerLocation.get(playerUUID);
+        // The area may have been removed since the location was last resolved.
+        return location == null || location.area == null ? null : AreaManager.INSTANCE.findBy(location.area.uid);
     }
 
     public boolean thisPlayerHasClientExt(ServerPlayer p) {
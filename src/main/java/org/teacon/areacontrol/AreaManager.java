@@ -1,6 +1,7 @@
 package org.teacon.areacontrol;
 
 import java.math.BigInteger;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -11,10 +12,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.core.GlobalPos;
@@ -33,7 +40,12 @@ import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.teacon.areacontrol.api.Area;
+import org.teacon.areacontrol.api.AreaProperties;
 import org.teacon.areacontrol.impl.AreaMath;
+import org.teacon.areacontrol.impl.AreaRoleCache;
+import org.teacon.areacontrol.impl.index.AreaHierarchy;
+import org.teacon.areacontrol.impl.index.AreaIndex;
+import org.teacon.areacontrol.impl.index.AreaTree;
 import org.teacon.areacontrol.impl.persistence.AreaRepository;
 
 public final class AreaManager {
@@ -44,23 +56,42 @@ public final class AreaManager {
 
     private AreaRepository repository = null;
 
+    /**
+     * Lock that serializes all mutations. Lookups by position, UUID or name do not need
+     * this lock; they read from {@link #index}, {@link #areasById} and {@link #areasByName}
+     * directly.
+     */
     private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
-    private final HashMap<UUID, Area> areasById = new HashMap<>();
-    private final HashMap<String, Area> areasByName = new HashMap<>();
+    private final Map<UUID, Area> areasById = new ConcurrentHashMap<>();
+    private final Map<String, Area> areasByName = new ConcurrentHashMap<>();
 
     // TODO Get rid of ResourceKey<Level> as key
 
     /**
-     * All known instances of {@link Area}, indexed by dimensions and chunk positions covered by this area.
+     * Snapshot of all known instances of {@link Area}, indexed by dimensions and chunk positions covered by this area.
      * Used for faster lookup of {@link Area} when the position is known.
+     * Mutations build a new snapshot and publish it by replacing this field, so readers never need to lock.
+     */
+    private volatile AreaIndex index = AreaIndex.EMPTY;
+    /**
+     * All known instances of {@link Area}, indexed by dimensions and their ranges. Used for querying areas
+     * by their spatial relation to a given range, e.g. overlapping, enclosing or nearby.
+     * Guarded by {@link #lock}.
+     */
+    private final IdentityHashMap<ResourceKey<Level>, AreaTree> areaTrees = new IdentityHashMap<>();
+
+    /**
+     * UIDs of areas changed since they were last handed to {@link #writer}. Only these areas are
+     * written upon save. Changes made outside of this class must be reported via {@link #markDirty(Area)}.
      */
-    private final IdentityHashMap<ResourceKey<Level>, Map<ChunkPos, Set<UUID>>> perWorldAreaCache = new IdentityHashMap<>();
+    private final Set<UUID> dirtyAreas = ConcurrentHashMap.newKeySet();
     /**
-     * All known instances of {@link Area}, indexed by dimensions only. Used for situations such as querying
-     * areas in a larger range.
+     * Single background thread performing all I/O of {@link #repository} except loading, so that
+     * saving never blocks the server thread. Being single-threaded, writes and removals of the same
+     * area are always performed in the order they are submitted.
      */
-    private final IdentityHashMap<ResourceKey<Level>, Set<UUID>> areasByWorld = new IdentityHashMap<>();
+    private ExecutorService writer = null;
 
     // Apparently create a ResourceKey involves String.intern(), so here we go...
     private final Map<String, ResourceKey<Level>> levelKeyCache = new HashMap<>();
@@ -69,46 +100,112 @@ public final class AreaManager {
         return this.levelKeyCache.computeIfAbsent(dimKey, k -> ResourceKey.create(Registries.DIMENSION, new ResourceLocation(k)));
     }
 
-    private void buildCacheFor(Area area, ResourceKey<Level> worldIndex) {
-        // Re-calculate volume
+    /**
+     * Assign the given depth to the given area, and re-derive the depth of all of its descendants.
+     */
+    private void updateDepth(Area root, int depth) {
+        root.depth = depth;
+        var queue = new ArrayDeque<Area>();
+        queue.add(root);
+        Area area;
+        while ((area = queue.poll()) != null) {
+            for (var subUid : area.subAreas) {
+                var sub = this.areasById.get(subUid);
+                if (sub != null) {
+                    sub.depth = area.depth + 1;
+                    queue.add(sub);
+                }
+            }
+        }
+    }
+
+    /**
+     * Keep the deprecated {@link Area#volume} up to date for add-ons still reading it. Only called when
+     * areas are added or resized, never for lookups.
+     */
+    @SuppressWarnings("removal")
+    private static void updateVolume(Area area) {
         long dx = area.maxX - area.minX, dy = area.maxY - area.minY, dz = area.maxZ - area.minZ;
         area.volume = BigInteger.valueOf(dx).multiply(BigInteger.valueOf(dy)).multiply(BigInteger.valueOf(dz));
+    }
+
+    private void buildCacheFor(Area area, ResourceKey<Level> worldIndex, AreaIndex.Editor editor) {
+        updateVolume(area);
         // not locked since every method invoking this one has been locked
         this.areasById.put(area.uid, area);
         this.areasByName.put(area.name, area);
-        this.areasByWorld.compute(worldIndex, (key, areas) -> {
-            if (areas == null) {
-                areas = new HashSet<>();
-            }
-            areas.add(area.uid);
-            return areas;
-        });
-        final var areasInDim = this.perWorldAreaCache.computeIfAbsent(worldIndex, id -> new HashMap<>());
+        this.treeOf(worldIndex).insert(area);
+        editor.add(worldIndex, area);
+    }
 
-        ChunkPos.rangeClosed(new ChunkPos(area.minX >> 4, area.minZ >> 4), new ChunkPos(area.maxX >> 4, area.maxZ >> 4))
-                .map(cp -> areasInDim.computeIfAbsent(cp, _cp -> Collections.newSetFromMap(new IdentityHashMap<>())))
-                .forEach(list -> list.add(area.uid));
+    private AreaTree treeOf(ResourceKey<Level> worldIndex) {
+        return this.areaTrees.computeIfAbsent(worldIndex, k -> new AreaTree());
+    }
+
+    /**
+     * @return The version of the current area index. It changes whenever an area is added, removed,
+     *         renamed or resized, and may be used to invalidate results derived from position lookups.
+     */
+    public long getIndexVersion() {
+        return this.index.version;
     }
 
     public void init(AreaRepository repository) {
+        if (this.writer != null) {
+            // Not shut down properly; anything still pending belongs to the previous repository. Let
+            // it finish before the areas are replaced, as repositories may read all live areas.
+            this.writer.shutdown();
+            try {
+                if (!this.writer.awaitTermination(1, TimeUnit.MINUTES)) {
+                    LOGGER.warn("Pending writes of claims data did not finish in time.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            var thread = new Thread(r, "AreaControl Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
         this.repository = repository;
+        this.dirtyAreas.clear();
         this.areasById.clear();
         this.areasByName.clear();
-        this.areasByWorld.clear();
-        this.perWorldAreaCache.clear();
+        this.areaTrees.clear();
+        this.index = AreaIndex.EMPTY;
+        AreaProperties.invalidateEffectiveProperties();
+        AreaRoleCache.INSTANCE.invalidateAll();
     }
 
     public void load() throws Exception {
         var writeLock = this.lock.writeLock();
         try {
             writeLock.lock();
-            for (Area a : this.repository.load()) {
-                this.buildCacheFor(a, this.getOrCreate(a.dimension));
+            // Build all lookup structures in bulk rather than adding areas one by one:
+            // maps are filled from presized local copies, trees are packed at once, and the
+            // index is built only after all depths are known.
+            var loaded = this.repository.load();
+            var byId = new HashMap<UUID, Area>(Math.max(16, loaded.size() * 4 / 3 + 1));
+            var byName = new HashMap<String, Area>(Math.max(16, loaded.size() * 4 / 3 + 1));
+            var byWorld = new IdentityHashMap<ResourceKey<Level>, List<Area>>();
+            for (Area a : loaded) {
+                updateVolume(a);
+                byId.put(a.uid, a);
+                byName.put(a.name, a);
+                byWorld.computeIfAbsent(this.getOrCreate(a.dimension), k -> new ArrayList<>()).add(a);
+                // Everything else is stored as is, so only legacy data has to be written back.
+                if (this.repository.needsMigration(a)) {
+                    this.dirtyAreas.add(a.uid);
+                }
             }
+            this.areasById.putAll(byId);
+            this.areasByName.putAll(byName);
+            byWorld.forEach((worldIndex, areas) -> this.areaTrees.put(worldIndex, AreaTree.bulkLoad(areas)));
             var danglingAreas = new ArrayList<Area>();
-            for (Area a : this.areasById.values()) {
+            for (Area a : byId.values()) {
                 if (a.belongingArea != null) {
-                    Area parent = this.areasById.get(a.belongingArea);
+                    Area parent = byId.get(a.belongingArea);
                     if (parent != null) {
                         parent.subAreas.add(a.uid);
                     } else {
@@ -118,58 +215,173 @@ public final class AreaManager {
                 }
             }
             // Try fixing dangling areas.
-            // The assumption is that the correct parent would have the smallest volume.
-            // The algorithm here is to find all areas that are superset of the dangling area,
-            // then find the area with the smallest volume.
+            // The assumption is that the correct parent is the innermost area enclosing the dangling area.
+            // Areas enclosing the same area are nested into each other, so the innermost one is the one
+            // enclosed by all other candidates.
             // If no parent area found, assuming the parent is the wildness, i.e. parent UID is null.
             for (Area dangling : danglingAreas) {
-                List<Area> possibleParents = new ArrayList<>();
+                Area theParent = null;
                 var dimKey = this.getOrCreate(dangling.dimension);
-                for (var maybeParentUid : this.areasByWorld.getOrDefault(dimKey, Collections.emptySet())) {
-                    var maybeParent = this.areasById.get(maybeParentUid);
-                    if (maybeParent != null && AreaMath.isEnclosing(maybeParent, dangling) && !AreaMath.isCoveringSameArea(maybeParent, dangling)) {
-                        possibleParents.add(maybeParent);
-                    }
-                }
-                var minVolume = AreaMath.VERY_BIG_NUMBER;
-                UUID theParent = null;
-                if (!possibleParents.isEmpty()) {
-                    for (var maybeParent : possibleParents) {
-                        var vol = maybeParent.volume;
-                        if (vol.compareTo(minVolume) < 0) {
-                            minVolume = vol;
-                            theParent = maybeParent.uid;
+                var candidates = this.treeOf(dimKey).findEnclosing(dangling.minX, dangling.minY, dangling.minZ, dangling.maxX, dangling.maxY, dangling.maxZ);
+                for (var maybeParent : candidates) {
+                    if (!AreaMath.isCoveringSameArea(maybeParent, dangling)) {
+                        if (AreaMath.isEnclosing(theParent, maybeParent)) {
+                            theParent = maybeParent;
                         }
                     }
                 }
-                dangling.belongingArea = theParent;
+                if (theParent != null) {
+                    dangling.belongingArea = theParent.uid;
+                    theParent.subAreas.add(dangling.uid);
+                } else {
+                    dangling.belongingArea = null;
+                }
+                this.dirtyAreas.add(dangling.uid);
+            }
+            // Derive depth of all areas from the hierarchy, starting from areas directly under the wildness.
+            // The index can only be published afterwards, since depth decides the order within chunk buckets.
+            for (Area a : byId.values()) {
+                if (a.belongingArea == null) {
+                    this.updateDepth(a, 0);
+                }
             }
+            this.index = this.index.rebuild(byWorld);
+            AreaProperties.invalidateEffectiveProperties();
+            AreaRoleCache.INSTANCE.invalidateAll();
         } finally {
             writeLock.unlock();
         }
     }
 
-    void saveDimension(ResourceKey<Level> key) throws Exception {
-        var writeLock = this.lock.writeLock();
+    /**
+     * Mark the given area as changed, so that it will be written upon next save. Mutations done
+     * via this class mark areas automatically; only direct changes to an {@link Area} need to be
+     * reported here. Owners and builders should be changed via {@link #addOwner(Area, UUID)} and
+     * its siblings instead, which also keep the change from racing with repositories that copy
+     * all areas in the background.
+     */
+    public void markDirty(Area area) {
+        // Direct changes are usually changes of owners or builders.
+        AreaRoleCache.INSTANCE.invalidateAll();
+        this.changed(area.uid);
+    }
+
+    /**
+     * Mark the area with the given UID as changed. If the repository is cheap to write to, write it right away.
+     */
+    private void changed(UUID uid) {
+        this.dirtyAreas.add(uid);
+        if (this.repository.isIncremental()) {
+            this.submitDirty();
+        }
+    }
+
+    /**
+     * Asynchronously write all changed areas.
+     */
+    private void submitDirty() {
+        this.submitDirty(area -> true);
+    }
+
+    /**
+     * Asynchronously write all changed areas in the given dimension.
+     */
+    void saveDimension(ResourceKey<Level> key) {
+        var dimension = key.location().toString();
+        this.submitDirty(area -> area.dimension.equals(dimension));
+    }
+
+    /**
+     * Write all changed areas, wait until all submitted writes and removals have been performed,
+     * then release all resources. Called when the server stops.
+     */
+    void shutdown() throws Exception {
+        this.submitDirty();
+        var repository = this.repository;
+        this.writer.submit(() -> {
+            repository.close();
+            return null;
+        }).get();
+        this.writer.shutdown();
+        this.writer = null;
+    }
+
+    private void submitDirty(Predicate<Area> filter) {
+        var snapshots = new ArrayList<Area>();
+        var readLock = this.lock.readLock();
         try {
-            writeLock.lock();
-            this.repository.save(this.areasById.values().stream()
-                    .filter(a -> a.dimension.equals(key.location().toString())).toList());
+            readLock.lock();
+            for (var it = this.dirtyAreas.iterator(); it.hasNext(); ) {
+                var area = this.areasById.get(it.next());
+                if (area == null) {
+                    it.remove();
+                } else if (filter.test(area)) {
+                    // Unmark before copying; changes made afterwards will mark it again.
+                    it.remove();
+                    snapshots.add(snapshotOf(area));
+                }
+            }
         } finally {
-            writeLock.unlock();
+            readLock.unlock();
         }
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        var repository = this.repository;
+        this.writer.execute(() -> {
+            try {
+                repository.save(snapshots);
+            } catch (Exception e) {
+                LOGGER.warn("Failed to write claims data, will retry on next save.", e);
+                for (var snapshot : snapshots) {
+                    if (this.areasById.containsKey(snapshot.uid)) {
+                        this.dirtyAreas.add(snapshot.uid);
+                    }
+                }
+            }
+        });
     }
 
-    void save() throws Exception {
-        var writeLock = this.lock.writeLock();
+    /**
+     * @return Copies of the persistent state of all known areas, safe to be serialized on another thread
+     */
+    public List<Area> snapshotAll() {
+        var readLock = this.lock.readLock();
         try {
-            writeLock.lock();
-            this.repository.save(this.areasById.values());
+            readLock.lock();
+            var snapshots = new ArrayList<Area>(this.areasById.size());
+            for (var area : this.areasById.values()) {
+                snapshots.add(snapshotOf(area));
+            }
+            return snapshots;
         } finally {
-            writeLock.unlock();
+            readLock.unlock();
         }
     }
 
+    /**
+     * @return A copy of the persistent state of the given area, safe to be serialized on another thread
+     */
+    private static Area snapshotOf(Area area) {
+        var copy = new Area();
+        copy.uid = area.uid;
+        copy.name = area.name;
+        copy.dimension = area.dimension;
+        copy.owners = new HashSet<>(area.owners);
+        copy.ownerGroups = new HashSet<>(area.ownerGroups);
+        copy.builders = new HashSet<>(area.builders);
+        copy.builderGroups = new HashSet<>(area.builderGroups);
+        copy.minX = area.minX;
+        copy.minY = area.minY;
+        copy.minZ = area.minZ;
+        copy.maxX = area.maxX;
+        copy.maxY = area.maxY;
+        copy.maxZ = area.maxZ;
+        copy.belongingArea = area.belongingArea;
+        copy.properties.putAll(area.properties);
+        return copy;
+    }
+
     /**
      * @param area       The Area instance to be recorded
      * @param worldIndex The {@link ResourceKey<Level>} of the {@link Level} to which the area belongs
@@ -193,30 +405,24 @@ public final class AreaManager {
             var theEnclosingArea = maybeOverlaps.iterator().next();
             {
                 // Then, we check if the defining cuboid is enclosing another area.
-                boolean noEnclosing = true;
-                for (var uuid : this.areasByWorld.getOrDefault(worldIndex, Collections.emptySet())) {
-                    Area a = this.areasById.get(uuid);
-                    if (a == null) continue;
-                    if (area.minX <= a.minX && a.maxX <= area.maxX) {
-                        if (area.minY <= a.minY && a.maxY <= area.maxY) {
-                            if (area.minZ <= a.minZ && a.maxZ <= area.maxZ) {
-                                noEnclosing = false;
-                                break;
-                            }
-                        }
-                    }
-                }
+                boolean noEnclosing = this.treeOf(worldIndex)
+                        .findEnclosedBy(area.minX, area.minY, area.minZ, area.maxX, area.maxY, area.maxZ).isEmpty();
                 // If not, we consider this to be a success.
                 if (noEnclosing) {
-                    this.buildCacheFor(area, worldIndex);
                     if (theEnclosingArea != null) {
                         area.properties.putAll(theEnclosingArea.properties);
                         // Copy default settings over
                         area.belongingArea = theEnclosingArea.uid;
                         theEnclosingArea.subAreas.add(area.uid);
                     }
+                    // Depth must be known before publishing, as it decides the order within chunk buckets
+                    area.depth = theEnclosingArea == null ? 0 : theEnclosingArea.depth + 1;
                     var dimId = worldIndex.location();
                     area.dimension = dimId.getNamespace() + ":" + dimId.getPath();
+                    var editor = this.index.edit();
+                    this.buildCacheFor(area, worldIndex, editor);
+                    this.index = editor.publish();
+                    this.changed(area.uid);
                     return true;
                 }
                 return false;
@@ -232,30 +438,159 @@ public final class AreaManager {
             writeLock.lock();
             this.areasById.remove(area.uid, area);
             this.areasByName.remove(area.name, area);
-            this.perWorldAreaCache.values().forEach(m -> m.values().forEach(l -> l.removeIf(uid -> uid == area.uid)));
-            this.areasByWorld.getOrDefault(worldIndex, Collections.emptySet()).remove(area.uid);
-            if (area.belongingArea != null) {
-                Area enclosing = this.areasById.get(area.belongingArea);
+            this.index = this.index.edit().remove(worldIndex, area).publish();
+            this.treeOf(worldIndex).remove(area);
+            Area enclosing = this.findBy(area.belongingArea);
+            if (enclosing != null) {
                 enclosing.subAreas.remove(area.uid);
             }
+            // Sub-areas are handed over to the enclosing area, moving one level up in the hierarchy.
+            // Their relative order within chunk buckets is unaffected, since each whole subtree
+            // moves up by exactly one level.
             for (var subAreaUid : area.subAreas) {
                 var subArea = this.findBy(subAreaUid);
+                if (subArea == null) continue;
                 subArea.belongingArea = area.belongingArea;
+                this.changed(subAreaUid);
+                if (enclosing != null) {
+                    enclosing.subAreas.add(subAreaUid);
+                }
+                this.updateDepth(subArea, area.depth);
             }
-            try {
-                this.repository.remove(area);
-            } catch (Exception e) {
-                LOGGER.error("Failed to remove data for area " + area.uid, e);
-            }
+            // Sub-areas now inherit properties and roles from a different parent.
+            AreaProperties.invalidateEffectiveProperties();
+            AreaRoleCache.INSTANCE.invalidateAll();
+            this.dirtyAreas.remove(area.uid);
+            var repository = this.repository;
+            this.writer.execute(() -> {
+                try {
+                    repository.remove(area);
+                } catch (Exception e) {
+                    LOGGER.error("Failed to remove data for area " + area.uid, e);
+                }
+            });
         } finally {
             writeLock.unlock();
         }
     }
 
     public void rename(Area area, String newName) {
-        this.areasByName.remove(area.name);
-        area.name = newName;
-        this.areasByName.put(newName, area);
+        var writeLock = this.lock.writeLock();
+        try {
+            writeLock.lock();
+            this.areasByName.remove(area.name);
+            area.name = newName;
+            this.areasByName.put(newName, area);
+            this.changed(area.uid);
+            this.index = this.index.edit().publish();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return The previous value of the property, or null if it was not set
+     */
+    public @Nullable Object setProperty(Area area, String key, Object value) {
+        var writeLock = this.lock.writeLock();
+        try {
+            writeLock.lock();
+            var oldValue = area.properties.put(key, value);
+            this.changed(area.uid);
+            AreaProperties.invalidateEffectiveProperties();
+            return oldValue;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return The previous value of the property, or null if it was not set
+     */
+    public @Nullable Object unsetProperty(Area area, String key) {
+        var writeLock = this.lock.writeLock();
+        try {
+            writeLock.lock();
+            var oldValue = area.properties.remove(key);
+            if (oldValue != null) {
+                this.changed(area.uid);
+            }
+            AreaProperties.invalidateEffectiveProperties();
+            return oldValue;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return true if the player was not an owner of the area before
+     */
+    public boolean addOwner(Area area, UUID playerId) {
+        return this.changeMembers(area, area.owners, playerId, true);
+    }
+
+    /**
+     * @return true if the player was an owner of the area before
+     */
+    public boolean removeOwner(Area area, UUID playerId) {
+        return this.changeMembers(area, area.owners, playerId, false);
+    }
+
+    /**
+     * @return true if the group was not an owner of the area before
+     */
+    public boolean addOwnerGroup(Area area, String group) {
+        return this.changeMembers(area, area.ownerGroups, group, true);
+    }
+
+    /**
+     * @return true if the group was an owner of the area before
+     */
+    public boolean removeOwnerGroup(Area area, String group) {
+        return this.changeMembers(area, area.ownerGroups, group, false);
+    }
+
+    /**
+     * @return true if the player was not a builder of the area before
+     */
+    public boolean addBuilder(Area area, UUID playerId) {
+        return this.changeMembers(area, area.builders, playerId, true);
+    }
+
+    /**
+     * @return true if the player was a builder of the area before
+     */
+    public boolean removeBuilder(Area area, UUID playerId) {
+        return this.changeMembers(area, area.builders, playerId, false);
+    }
+
+    /**
+     * @return true if the group was not a builder of the area before
+     */
+    public boolean addBuilderGroup(Area area, String group) {
+        return this.changeMembers(area, area.builderGroups, group, true);
+    }
+
+    /**
+     * @return true if the group was a builder of the area before
+     */
+    public boolean removeBuilderGroup(Area area, String group) {
+        return this.changeMembers(area, area.builderGroups, group, false);
+    }
+
+    private <T> boolean changeMembers(Area area, Set<T> members, T member, boolean add) {
+        // Locked like any other mutation, as the repository may copy all areas on the writer thread.
+        var writeLock = this.lock.writeLock();
+        try {
+            writeLock.lock();
+            boolean changed = add ? members.add(member) : members.remove(member);
+            if (changed) {
+                this.markDirty(area);
+            }
+            return changed;
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     public boolean changeRangeForArea(ResourceKey<Level> dim, Area area, Direction direction, int amount) {
@@ -265,6 +600,16 @@ public final class AreaManager {
         if (direction == null) {
             return false;
         }
+        var writeLock = this.lock.writeLock();
+        try {
+            writeLock.lock();
+            return this.changeRangeForArea0(dim, area, direction, amount);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private boolean changeRangeForArea0(ResourceKey<Level> dim, Area area, Direction direction, int amount) {
         // Calculate the range after change
         int minX = area.minX, minY = area.minY, minZ = area.minZ, maxX = area.maxX, maxY = area.maxY, maxZ = area.maxZ;
         switch (direction) {
@@ -316,12 +661,9 @@ public final class AreaManager {
             // Positive means expansion.
             // No existing areas should thus have overlap with this area, or being swallowed after expansion.
             // TODO Allow automatic area "swallowing", this would require heavy calculation...
-            var areaByChunkPos = this.perWorldAreaCache.getOrDefault(dim, Collections.emptyMap());
-            var maybeOverlaps = ChunkPos.rangeClosed(new ChunkPos(minX >> 4, minZ >> 4), new ChunkPos(maxX >> 4, maxZ >> 4))
-                    .flatMap(cp -> areaByChunkPos.getOrDefault(cp, Collections.emptySet()).stream())
-                    .collect(Collectors.toSet());
-            for (var maybeOverlapId : maybeOverlaps) {
-                var maybeOverlap = this.findBy(maybeOverlapId);
+            // Areas not intersecting the new range are always independent of this area.
+            var maybeOverlaps = this.treeOf(dim).findIntersecting(minX, minY, minZ, maxX, maxY, maxZ);
+            for (var maybeOverlap : maybeOverlaps) {
                 if (maybeOverlap != area) {
                     var relation = AreaMath.relationBetween(minX, minY, minZ, maxX, maxY, maxZ, maybeOverlap);
                     if (relation == AreaMath.SetRelation.INTERSECT || relation == AreaMath.SetRelation.SAME) {
@@ -347,17 +689,12 @@ public final class AreaManager {
                 }
             }
         }
-        area.minX = minX;
-        area.minY = minY;
-        area.minZ = minZ;
-        area.maxX = maxX;
-        area.maxY = maxY;
-        area.maxZ = maxZ;
-        this.perWorldAreaCache.values().forEach(m -> m.values().forEach(l -> l.removeIf(uid -> uid == area.uid)));
-        final var areasInDim = this.perWorldAreaCache.computeIfAbsent(dim, id -> new HashMap<>());
-        ChunkPos.rangeClosed(new ChunkPos(area.minX >> 4, area.minZ >> 4), new ChunkPos(area.maxX >> 4, area.maxZ >> 4))
-                .map(cp -> areasInDim.computeIfAbsent(cp, _cp -> Collections.newSetFromMap(new IdentityHashMap<>())))
-                .forEach(list -> list.add(area.uid));
+        // Only chunks entering or leaving the range need to be updated. The range of the area itself
+        // only changes upon publishing, so that lookups never see it out of step with the index.
+        this.index = this.index.edit().resize(dim, area, minX, minY, minZ, maxX, maxY, maxZ).publish();
+        this.treeOf(dim).insert(area);
+        updateVolume(area);
+        this.changed(area.uid);
         return true;
     }
 
@@ -431,73 +768,75 @@ public final class AreaManager {
         return findBy(world, alignedPos);
     }
 
+    /**
+     * Fast path for hot code paths where most positions are expected to be in the wildness.
+     * Only consults the occupancy bitmap of the area index, which is cheaper than {@link #findBy(ResourceKey, BlockPos)}.
+     *
+     * @return true if no area covers any block of the chunk containing the given position, in which
+     *         case {@link #findBy(ResourceKey, BlockPos)} would definitely return null; false otherwise.
+     */
+    public boolean isInUnclaimedChunk(ResourceKey<Level> world, BlockPos pos) {
+        return !this.index.isOccupied(world, pos.getX() >> 4, pos.getZ() >> 4);
+    }
+
     @Nullable
     public Area findBy(ResourceKey<Level> world, BlockPos pos) {
         return findWithExclusion(world, pos, null);
     }
 
-    @Nullable
-    public Area findWithExclusion(ResourceKey<Level> world, BlockPos pos, Area excluded) {
-        var readLock = this.lock.readLock();
-        try {
-            readLock.lock();
-            var results = new ArrayList<Area>();
-            // Locate all areas that contain the specified position
-            for (var uuid : this.perWorldAreaCache.getOrDefault(
-                    world, Collections.emptyMap()).getOrDefault(new ChunkPos(pos), Collections.emptySet())) {
-                Area area = this.areasById.get(uuid);
-                if (area == null || area == excluded) {
-                    continue;
-                }
-                if (area.minX <= pos.getX() && pos.getX() <= area.maxX) {
-                    if (area.minY <= pos.getY() && pos.getY() <= area.maxY) {
-                        if (area.minZ <= pos.getZ() && pos.getZ() <= area.maxZ) {
-                            results.add(area);
-                        }
-                    }
+    /**
+     * Bulk version of {@link #findBy(ResourceKey, BlockPos)}. All positions are resolved against the
+     * same snapshot of the area index, and all positions in the same chunk share one bucket lookup,
+     * regardless of their order. Positions in chunks not covered by any area are resolved without
+     * further checks.
+     *
+     * @param world The dimension of all positions
+     * @param positions Positions to resolve
+     * @return Array of areas, where the i-th element is the area at the i-th position, or null for wildness.
+     */
+    public @Nullable Area[] findBy(ResourceKey<Level> world, List<BlockPos> positions) {
+        final var snapshot = this.index;
+        final var size = positions.size();
+        final var result = new Area[size];
+        // Positions often come from a hash set, e.g. blocks affected by an explosion, so positions in
+        // the same chunk are scattered all over the list. Remember every bucket seen so far.
+        final var buckets = new Long2ObjectOpenHashMap<Area[]>();
+        long lastChunk = 0L;
+        Area[] bucket = null;
+        for (int i = 0; i < size; i++) {
+            final var pos = positions.get(i);
+            final int x = pos.getX(), y = pos.getY(), z = pos.getZ();
+            final long chunk = ChunkPos.asLong(x >> 4, z >> 4);
+            if (bucket == null || chunk != lastChunk) {
+                bucket = buckets.get(chunk);
+                if (bucket == null) {
+                    bucket = snapshot.areasAt(world, x >> 4, z >> 4);
+                    buckets.put(chunk, bucket);
                 }
+                lastChunk = chunk;
             }
-            // If there is only one area, it will be our result.
-            if (results.size() == 1) {
-                return results.iterator().next();
-            }
-            // Else, we find the deepest area in our selected area.
-            // Such area must have no child area in the set of matched areas.
-            // Example: two areas, A and B, are matched. B is sub-area of A.
-            // Since one of A's sub-area is in the set of matches area,
-            // it would not be the deepest area. Regardless whether B has
-            // sub-areas or not, none of the areas other than B are sub-area
-            // of B, so B is the deepest area in our set.
-            /*outer: for (Area a : results) {
-                for (Area maybeChild : results) {
-                    if (a != maybeChild && a.subAreas.contains(maybeChild.uid)) {
-                        continue outer;
-                    }
-                }
-                return a;
-            }*/
-            // TODO I still don't believe this is correct, but I am bugged everyday for this.
-            //   Need to find some time to verify.
-            Area result = null;
-            BigInteger minVolume = AreaMath.VERY_BIG_NUMBER;
-            for (var a : results) {
-                BigInteger vol = a.volume;
-                if (vol.compareTo(minVolume) < 0) {
-                    result = a;
-                    minVolume = vol;
-                } else if (vol.equals(minVolume) && result != null) {
-                    if (result.minX <= a.minX && a.maxX <= result.maxX
-                            && result.minY <= a.minY && a.maxY <= result.maxY
-                            && result.minZ <= a.minZ && a.maxZ <= result.maxZ) {
-                        result = a;
-                    }
+            for (var area : bucket) {
+                if (area.minX <= x && x <= area.maxX && area.minY <= y && y <= area.maxY && area.minZ <= z && z <= area.maxZ) {
+                    result[i] = area;
+                    break;
                 }
             }
-            if (result != null) {
-                return result;
+        }
+        return result;
+    }
+
+    @Nullable
+    public Area findWithExclusion(ResourceKey<Level> world, BlockPos pos, Area excluded) {
+        final int x = pos.getX(), y = pos.getY(), z = pos.getZ();
+        // Areas in each chunk bucket are sorted with the innermost area first, so the
+        // first area that contains the specified position is the deepest one.
+        for (var area : this.index.areasAt(world, x >> 4, z >> 4)) {
+            if (area == excluded) {
+                continue;
+            }
+            if (area.minX <= x && x <= area.maxX && area.minY <= y && y <= area.maxY && area.minZ <= z && z <= area.maxZ) {
+                return area;
             }
-        } finally {
-            readLock.unlock();
         }
         //return findDefaultBy(world);
         return null;
@@ -508,13 +847,7 @@ public final class AreaManager {
         if (uid == null) {
             return null;
         }
-        var readLock = this.lock.readLock();
-        try {
-            readLock.lock();
-            return this.areasById.get(uid);
-        } finally {
-            readLock.unlock();
-        }
+        return this.areasById.get(uid);
     }
 
     public Collection<Area> findByOwner(UUID ownerId) {
@@ -522,29 +855,42 @@ public final class AreaManager {
     }
 
     public Area findBy(String name) {
+        return this.areasByName.get(name);
+    }
+
+    /**
+     * @return All areas in the given dimension whose range has at least one block within the square
+     *         of the given radius around the given center, regardless of the Y level.
+     */
+    public List<Area> getAreaSummariesSurround(ResourceKey<Level> dim, BlockPos center, double radius) {
         var readLock = this.lock.readLock();
         try {
             readLock.lock();
-            return this.areasByName.get(name);
+            var ret = new ArrayList<Area>();
+            // Not using treeOf, which may create a tree but we are only holding the read lock here
+            var tree = this.areaTrees.get(dim);
+            if (tree != null) {
+                // Casting from double saturates, so huge radius does not overflow
+                int minX = (int) Math.floor(center.getX() - radius), maxX = (int) Math.ceil(center.getX() + radius);
+                int minZ = (int) Math.floor(center.getZ() - radius), maxZ = (int) Math.ceil(center.getZ() + radius);
+                tree.forEachIntersecting(minX, Integer.MIN_VALUE, minZ, maxX, Integer.MAX_VALUE, maxZ, ret::add);
+            }
+            return ret;
         } finally {
             readLock.unlock();
         }
     }
 
-    public List<Area> getAreaSummariesSurround(ResourceKey<Level> dim, BlockPos center, double radius) {
+    /**
+     * @param properties Properties to track in the hierarchy
+     * @return A snapshot of the hierarchy of all areas, tagged with the current index version and property generation
+     */
+    public AreaHierarchy buildHierarchy(List<String> properties) {
         var readLock = this.lock.readLock();
         try {
             readLock.lock();
-            var ret = new ArrayList<Area>();
-            for (var uuid : this.areasByWorld.getOrDefault(dim, Collections.emptySet())) {
-                Area area = this.areasById.get(uuid);
-                if (area == null) continue;
-                int xDiff = area.minX + (area.maxX - area.minX) / 2 - center.getX(), zDiff = area.minZ + (area.maxZ - area.minZ) / 2 - center.getZ();
-                if (Math.abs(xDiff) < radius && Math.abs(zDiff) < radius) {
-                    ret.add(area);
-                }
-            }
-            return ret;
+            // Both only change under the write lock, so they match what we see here.
+            return new AreaHierarchy(this.getIndexVersion(), AreaProperties.getGeneration(), this.areasById.values(), properties);
         } finally {
             readLock.unlock();
         }
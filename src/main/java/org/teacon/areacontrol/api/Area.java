@@ -26,7 +26,22 @@ public final class Area {
     public int minX, minY, minZ, maxX, maxY, maxZ;
     public UUID belongingArea = null;
     public transient Set<UUID> subAreas = new HashSet<>();
+    /**
+     * Volume of this area, formerly used to find the innermost area at a position.
+     * @deprecated No longer used by AreaControl itself; nesting is decided by {@link #depth}. Still
+     *             kept up to date for add-ons, but will be removed in a future version.
+     */
+    @Deprecated(forRemoval = true)
     public transient BigInteger volume = BigInteger.ZERO;
+    /**
+     * Nesting depth of this area; areas directly under the wildness have depth 0.
+     * Maintained by the area manager whenever {@link #belongingArea} changes.
+     */
+    public transient int depth = 0;
+    /**
+     * Properties of this area with inherited values resolved, built on demand by {@link AreaProperties}.
+     */
+    transient volatile EffectiveProperties effectiveProperties = null;
 
     public final Map<String, Object> properties = new ConcurrentHashMap<>();
 
@@ -6,6 +6,8 @@ import org.jetbrains.annotations.Nullable;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 public final class AreaProperties {
 
@@ -44,8 +46,14 @@ public final class AreaProperties {
     public static final String ALLOW_CB_USE_SELECTOR_FROM_CHILD = register("area.allow_select_from_child_area_by_command_block");
     public static final String ALLOW_CB_USE_SELECTOR_FROM_PARENT  = register("area.allow_select_from_parent_area_by_command_block");
 
+    /**
+     * Generation of property data. Flattened property tables built for an older generation are discarded.
+     */
+    private static final AtomicLong GENERATION = new AtomicLong();
+
     static String register(String property) {
         KNOWN_PROPERTIES.add(property);
+        AreaPropertyKeys.registerKnown(property);
         return property;
     }
 
@@ -59,21 +67,11 @@ public final class AreaProperties {
 
     public static boolean getBool(@Nullable Area area, String key, boolean recursive) {
         if (area == null) return false;
-        Object o = area.properties.get(key);
-        if (o == null || "null".equals(o)) {
-            if (recursive) {
-                if (area.belongingArea != null) {
-                    var parent = AreaControlAPI.areaLookup.findBy(area.belongingArea);
-                    return getBool(parent, key, true);
-                } else {
-                    return false;
-                }
-            } else {
-                return false;
-            }
-        } else {
-            return getBool(o);
+        if (recursive) {
+            return Boolean.TRUE.equals(effectivePropertiesOf(area).get(AreaPropertyKeys.idOf(key)));
         }
+        Object o = area.properties.get(key);
+        return o != null && !"null".equals(o) && getBool(o);
     }
 
     /**
@@ -85,24 +83,82 @@ public final class AreaProperties {
 
     public static Optional<Boolean> getBoolOptional(@Nullable Area area, String key, boolean recursive) {
         if (area == null) return Optional.empty();
+        if (recursive) {
+            return Optional.ofNullable(effectivePropertiesOf(area).get(AreaPropertyKeys.idOf(key)));
+        }
         Object o = area.properties.get(key);
-        if (o == null || "null".equals(o)) {
-            if (recursive) {
-                if (area.belongingArea != null) {
-                    var parent = AreaControlAPI.areaLookup.findBy(area.belongingArea);
-                    return getBoolOptional(parent, key, true);
-                } else {
-                    return Optional.empty();
-                }
-            } else {
-                return Optional.empty();
-            }
-        } else {
-            return Optional.of(getBool(o));
+        return o == null || "null".equals(o) ? Optional.empty() : Optional.of(getBool(o));
+    }
+
+    /**
+     * Same as {@link #getBoolOptional(Area, String)}, but returns null if the property is not specified.
+     */
+    public static @Nullable Boolean getEffective(@Nullable Area area, String key) {
+        // Keys are registered while the table is built, so the table must be resolved before the key ID.
+        return area == null ? null : effectivePropertiesOf(area).get(AreaPropertyKeys.idOf(key));
+    }
+
+    /**
+     * Look up an object-specific or mod-specific property, i.e. {@code <key>.<namespace>:<path>} or
+     * {@code <key>.<namespace>}, without building the full property key if the property is one of
+     * {@link #KNOWN_PROPERTIES}.
+     * @param path Path of the object id; null for the mod-specific property.
+     * @return null if the property is not specified
+     */
+    public static @Nullable Boolean getEffective(@Nullable Area area, String key, String namespace, @Nullable String path) {
+        return area == null ? null : effectivePropertiesOf(area).get(AreaPropertyKeys.idOf(key, namespace, path));
+    }
+
+    /**
+     * Same as {@link #getEffective(Area, String, String, String)}, looking up the object-specific
+     * property first and the mod-specific property next, but for an object instead of its id, e.g.
+     * an item or a block. The result is remembered per area and object until properties change, so
+     * that repeated lookups for the same object need neither its id nor any property key.
+     * @param key One of {@link #KNOWN_PROPERTIES}
+     * @param idOf Function that gives the id of the object in {@code <namespace>:<path>} form, or null if it has none
+     * @return null if neither property is specified
+     */
+    public static <T> @Nullable Boolean getEffectiveFor(@Nullable Area area, String key, T target, Function<? super T, String> idOf) {
+        return area == null ? null : effectivePropertiesOf(area).getTargeted(key, target, idOf);
+    }
+
+    /**
+     * Check whether the given area, or any of its parents, sets any object-specific or mod-specific
+     * key of the given known property to false, e.g. {@code area.allow_possess.minecraft:tnt}. If not,
+     * {@link #getEffective(Area, String, String, String)} never returns false for that property.
+     */
+    public static boolean hasTargetedDenial(@Nullable Area area, String key) {
+        return area != null && effectivePropertiesOf(area).hasDeniedTargets(key);
+    }
+
+    /**
+     * @return Current generation of property data, which changes whenever properties of any area
+     *         may have changed. See {@link #invalidateEffectiveProperties()}.
+     */
+    public static long getGeneration() {
+        return GENERATION.get();
+    }
+
+    /**
+     * Discard all flattened property tables. Must be called after properties of any area, or the
+     * parent of any area, have been changed.
+     */
+    public static void invalidateEffectiveProperties() {
+        GENERATION.incrementAndGet();
+    }
+
+    private static EffectiveProperties effectivePropertiesOf(Area area) {
+        var generation = GENERATION.get();
+        var table = area.effectiveProperties;
+        if (table == null || table.generation != generation) {
+            var parent = area.belongingArea == null ? null : AreaControlAPI.areaLookup.findBy(area.belongingArea);
+            table = EffectiveProperties.build(generation, area, parent == null ? null : effectivePropertiesOf(parent));
+            area.effectiveProperties = table;
         }
+        return table;
     }
 
-    private static boolean getBool(@NotNull Object o) {
+    static boolean getBool(@NotNull Object o) {
         if (o instanceof Boolean) {
             return (Boolean) o;
         } else if (o instanceof Number) {
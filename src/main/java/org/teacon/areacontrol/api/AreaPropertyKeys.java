@@ -0,0 +1,124 @@
+package org.teacon.areacontrol.api;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry that assigns dense integer IDs to property keys, so that the flattened properties
+ * of an area can be stored as an array indexed by key ID.
+ * <p>
+ * Every property in {@link AreaProperties#KNOWN_PROPERTIES} gets an ID up front. Other keys,
+ * e.g. object-specific rules like {@code area.allow_break_block.minecraft:stone}, get an ID the
+ * first time they are seen in any area. IDs are never reused or revoked.
+ * <p>
+ * Object-specific and mod-specific keys of known properties are additionally indexed by
+ * property, namespace and path, so that their IDs can be found without building the key first.
+ */
+public final class AreaPropertyKeys {
+
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static final List<String> KEYS = new ArrayList<>();
+    /**
+     * For each key ID, the known property of which the key is an object-specific or mod-specific key; null if none.
+     */
+    private static final List<String> TARGETED_PROPERTIES = new ArrayList<>();
+    private static final Map<String, Map<String, TargetIds>> TARGETED = new ConcurrentHashMap<>();
+
+    /**
+     * Register a known property, so that its object-specific and mod-specific keys are indexed.
+     */
+    static synchronized int registerKnown(String property) {
+        TARGETED.putIfAbsent(property, new ConcurrentHashMap<>());
+        return register(property);
+    }
+
+    /**
+     * @return The ID of the given key, assigning a new one if the key has never been seen.
+     */
+    static int register(String key) {
+        var id = IDS.get(key);
+        if (id != null) {
+            return id;
+        }
+        synchronized (AreaPropertyKeys.class) {
+            id = IDS.get(key);
+            if (id != null) {
+                return id;
+            }
+            id = KEYS.size();
+            KEYS.add(key);
+            TARGETED_PROPERTIES.add(null);
+            for (var entry : TARGETED.entrySet()) {
+                var prop = entry.getKey();
+                if (key.length() > prop.length() + 1 && key.startsWith(prop) && key.charAt(prop.length()) == '.') {
+                    var target = key.substring(prop.length() + 1);
+                    var separator = target.indexOf(':');
+                    var namespace = separator < 0 ? target : target.substring(0, separator);
+                    var ids = entry.getValue().computeIfAbsent(namespace, k -> new TargetIds());
+                    if (separator < 0) {
+                        ids.namespaceId = id;
+                    } else {
+                        ids.byPath.put(target.substring(separator + 1), id);
+                    }
+                    TARGETED_PROPERTIES.set(id, prop);
+                }
+            }
+            // Publish the ID only after it has been fully indexed.
+            IDS.put(key, id);
+            return id;
+        }
+    }
+
+    /**
+     * @return The ID of the given key, or -1 if no area has ever specified this key.
+     */
+    public static int idOf(String key) {
+        var id = IDS.get(key);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param path Path of the object id; null for the mod-specific key.
+     * @return The ID of {@code <property>.<namespace>:<path>}, or {@code <property>.<namespace>} if path
+     *         is null; -1 if no area has ever specified this key.
+     */
+    public static int idOf(String property, String namespace, @Nullable String path) {
+        var byNamespace = TARGETED.get(property);
+        if (byNamespace == null) {
+            // Keys of unknown properties are not indexed; fall back to the full key.
+            return idOf(path == null ? property + "." + namespace : property + "." + namespace + ":" + path);
+        }
+        var ids = byNamespace.get(namespace);
+        if (ids == null) {
+            return -1;
+        }
+        if (path == null) {
+            return ids.namespaceId;
+        }
+        var id = ids.byPath.get(path);
+        return id == null ? -1 : id;
+    }
+
+    public static synchronized String keyOf(int id) {
+        return KEYS.get(id);
+    }
+
+    /**
+     * @return The known property of which the key with the given ID is an object-specific or
+     *         mod-specific key, or null if it is not such a key.
+     */
+    static synchronized @Nullable String targetedPropertyOf(int id) {
+        return TARGETED_PROPERTIES.get(id);
+    }
+
+    private static final class TargetIds {
+        volatile int namespaceId = -1;
+        final Map<String, Integer> byPath = new ConcurrentHashMap<>();
+    }
+
+    private AreaPropertyKeys() {}
+}
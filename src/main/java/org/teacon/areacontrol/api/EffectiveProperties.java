@@ -0,0 +1,133 @@
+package org.teacon.areacontrol.api;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Flattened view of the properties of one {@link Area}, with values inherited from all of its
+ * parent areas already resolved. Values are parsed in advance and stored as tri-state values,
+ * indexed by the key IDs assigned by {@link AreaPropertyKeys}.
+ */
+final class EffectiveProperties {
+
+    private static final byte UNSET = 0, FALSE = 1, TRUE = 2;
+
+    /**
+     * Generation of property data this table was built from. See {@link AreaProperties#invalidateEffectiveProperties()}.
+     */
+    final long generation;
+    /**
+     * Keys with an ID beyond the end of this array have not been seen when this table was built,
+     * and therefore cannot be specified by this area or any of its parents.
+     */
+    private final byte[] states;
+    /**
+     * Known properties that have at least one object-specific or mod-specific key set to false.
+     */
+    private final Set<String> deniedTargets;
+    /**
+     * Resolved object-specific or mod-specific value of each known property, keyed by the object.
+     * Filled on demand, as mod-specific rules apply to objects that are not known in advance.
+     */
+    private final Map<String, Map<Object, Byte>> targeted = new ConcurrentHashMap<>();
+
+    private EffectiveProperties(long generation, byte[] states, Set<String> deniedTargets) {
+        this.generation = generation;
+        this.states = states;
+        this.deniedTargets = deniedTargets;
+    }
+
+    static EffectiveProperties build(long generation, Area area, @Nullable EffectiveProperties parent) {
+        var own = area.properties.entrySet();
+        var ids = new int[own.size()];
+        var values = new byte[ids.length];
+        int count = 0, length = parent == null ? 0 : parent.states.length;
+        for (var entry : own) {
+            var o = entry.getValue();
+            // "null" means that the property is unset, thus inherited from the parent.
+            if (count < ids.length && !"null".equals(o)) {
+                var id = AreaPropertyKeys.register(entry.getKey());
+                ids[count] = id;
+                values[count] = AreaProperties.getBool(o) ? TRUE : FALSE;
+                count++;
+                length = Math.max(length, id + 1);
+            }
+        }
+        var states = parent == null ? new byte[length] : Arrays.copyOf(parent.states, length);
+        for (int i = 0; i < count; i++) {
+            states[ids[i]] = values[i];
+        }
+        Set<String> deniedTargets = Set.of();
+        for (int id = 0; id < states.length; id++) {
+            if (states[id] == FALSE) {
+                var prop = AreaPropertyKeys.targetedPropertyOf(id);
+                if (prop != null) {
+                    if (deniedTargets.isEmpty()) {
+                        deniedTargets = new HashSet<>();
+                    }
+                    deniedTargets.add(prop);
+                }
+            }
+        }
+        return new EffectiveProperties(generation, states, deniedTargets);
+    }
+
+    /**
+     * @return Whether any object-specific or mod-specific key of the given known property is false
+     */
+    boolean hasDeniedTargets(String property) {
+        return this.deniedTargets.contains(property);
+    }
+
+    /**
+     * @return The value of the key with the given ID, or null if it is not specified
+     */
+    @Nullable Boolean get(int id) {
+        return toBoolean(this.stateOf(id));
+    }
+
+    /**
+     * @param idOf Function that gives the id of the object in {@code <namespace>:<path>} form, or null if it has none;
+     *             only called the first time the object is seen
+     * @return The object-specific value of the given known property for the given object, or the
+     *         mod-specific value if there is none; null if neither is specified
+     */
+    <T> @Nullable Boolean getTargeted(String property, T target, Function<? super T, String> idOf) {
+        var byTarget = this.targeted.computeIfAbsent(property, k -> new ConcurrentHashMap<>());
+        var state = byTarget.get(target);
+        if (state == null) {
+            state = this.resolveTargeted(property, idOf.apply(target));
+            byTarget.put(target, state);
+        }
+        return toBoolean(state);
+    }
+
+    private byte resolveTargeted(String property, @Nullable String targetId) {
+        if (targetId == null) {
+            return UNSET;
+        }
+        var separator = targetId.indexOf(':');
+        var namespace = separator < 0 ? "minecraft" : targetId.substring(0, separator);
+        var path = targetId.substring(separator + 1);
+        var state = this.stateOf(AreaPropertyKeys.idOf(property, namespace, path));
+        return state != UNSET ? state : this.stateOf(AreaPropertyKeys.idOf(property, namespace, null));
+    }
+
+    private byte stateOf(int id) {
+        return id < 0 || id >= this.states.length ? UNSET : this.states[id];
+    }
+
+    private static @Nullable Boolean toBoolean(byte state) {
+        return switch (state) {
+            case TRUE -> Boolean.TRUE;
+            case FALSE -> Boolean.FALSE;
+            default -> null;
+        };
+    }
+}
@@ -5,6 +5,7 @@ import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public interface GroupProvider {
@@ -23,5 +24,20 @@ public interface GroupProvider {
      */
     boolean isValidGroup(@Nullable String groupIdentifier);
 
+    /**
+     * Fetch the primary group of the given player.
+     * @return Name of the group, or null if the player does not belong to any group
+     */
     @Nullable String getGroupFor(@NotNull UUID playerId);
+
+    /**
+     * Fetch all groups the given player belongs to, including the ones inherited through other groups.
+     * The primary group, i.e. the one {@link #getGroupFor(UUID)} returns, comes first.
+     * Providers whose players can only belong to one group need not implement this.
+     * @return Read-only collection of group names, primary group first
+     */
+    default @NotNull @Unmodifiable Collection<String> getGroupsFor(@NotNull UUID playerId) {
+        var group = this.getGroupFor(playerId);
+        return group == null ? List.of() : List.of(group);
+    }
 }
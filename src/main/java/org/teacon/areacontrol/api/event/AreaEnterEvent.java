@@ -0,0 +1,26 @@
+package org.teacon.areacontrol.api.event;
+
+import net.minecraft.world.entity.player.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.teacon.areacontrol.api.Area;
+
+/**
+ * Fired when a player enters an area. See {@link AreaEvent} for details.
+ */
+public class AreaEnterEvent extends AreaEvent {
+
+    private final @Nullable Area from;
+
+    public AreaEnterEvent(Player player, @NotNull Area area, @Nullable Area from) {
+        super(player, area);
+        this.from = from;
+    }
+
+    /**
+     * @return The area that the player was in before, or null if it was the wildness
+     */
+    public @Nullable Area getFrom() {
+        return this.from;
+    }
+}
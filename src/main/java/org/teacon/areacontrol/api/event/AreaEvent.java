@@ -0,0 +1,35 @@
+package org.teacon.areacontrol.api.event;
+
+import net.minecraft.world.entity.player.Player;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import org.jetbrains.annotations.NotNull;
+import org.teacon.areacontrol.api.Area;
+
+/**
+ * Base class of events fired on {@link net.minecraftforge.common.MinecraftForge#EVENT_BUS} when the
+ * innermost area that a player stands in changes, on the logical server only.
+ * <p>
+ * Such a change is detected when the player moves into another block, changes dimension, or when
+ * areas are added, removed or resized around the player. Moving from an area into one of its
+ * sub-areas counts as leaving the former and entering the latter, although the player is still
+ * within the range of both. No event is fired when a player logs in or out.
+ * <p>
+ * For each change, {@link AreaLeaveEvent} is fired first, followed by {@link AreaEnterEvent}.
+ * Either one is skipped if the corresponding side is the wildness.
+ */
+public abstract class AreaEvent extends PlayerEvent {
+
+    private final Area area;
+
+    protected AreaEvent(Player player, @NotNull Area area) {
+        super(player);
+        this.area = area;
+    }
+
+    /**
+     * @return The area being entered or left
+     */
+    public @NotNull Area getArea() {
+        return this.area;
+    }
+}
@@ -0,0 +1,26 @@
+package org.teacon.areacontrol.api.event;
+
+import net.minecraft.world.entity.player.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.teacon.areacontrol.api.Area;
+
+/**
+ * Fired when a player leaves an area. See {@link AreaEvent} for details.
+ */
+public class AreaLeaveEvent extends AreaEvent {
+
+    private final @Nullable Area to;
+
+    public AreaLeaveEvent(Player player, @NotNull Area area, @Nullable Area to) {
+        super(player, area);
+        this.to = to;
+    }
+
+    /**
+     * @return The area that the player is in now, or null if it is the wildness
+     */
+    public @Nullable Area getTo() {
+        return this.to;
+    }
+}
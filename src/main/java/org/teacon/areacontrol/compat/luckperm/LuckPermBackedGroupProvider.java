@@ -6,7 +6,10 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.teacon.areacontrol.api.GroupProvider;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 public enum LuckPermBackedGroupProvider implements GroupProvider {
@@ -31,4 +34,24 @@ public enum LuckPermBackedGroupProvider implements GroupProvider {
         var luckUser = luckPerm.getUserManager().getUser(playerId);
         return luckUser == null ? null : luckUser.getPrimaryGroup();
     }
+
+    @Override
+    public @NotNull Collection<String> getGroupsFor(@NotNull UUID playerId) {
+        var luckPerm = LuckPermsProvider.get();
+        var luckUser = luckPerm.getUserManager().getUser(playerId);
+        if (luckUser == null) {
+            return List.of();
+        }
+        // Inherited groups include the primary group, as well as any group inherited by another group.
+        // The primary group goes first, as callers may take it from here instead of asking again.
+        var primary = luckUser.getPrimaryGroup();
+        var groups = new ArrayList<String>();
+        groups.add(primary);
+        for (var group : luckUser.getInheritedGroups(luckUser.getQueryOptions())) {
+            if (!primary.equals(group.getName())) {
+                groups.add(group.getName());
+            }
+        }
+        return Collections.unmodifiableList(groups);
+    }
 }
@@ -2,10 +2,14 @@ package org.teacon.areacontrol.compat.luckperm;
 
 import net.luckperms.api.LuckPerms;
 import net.luckperms.api.LuckPermsProvider;
+import net.luckperms.api.event.group.GroupDataRecalculateEvent;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.teacon.areacontrol.AreaControlConfig;
 import org.teacon.areacontrol.api.AreaControlAPI;
+import org.teacon.areacontrol.impl.AreaRoleCache;
+import org.teacon.areacontrol.impl.CachingGroupProvider;
 
 public class LuckPermsCompat {
 
@@ -17,7 +21,20 @@ public class LuckPermsCompat {
             theApi.getContextManager().registerCalculator(AreaControlContextCalculator.INSTANCE);
             var groupProviderConfig = AreaControlConfig.groupProvider.get();
             if ("luckperms".equalsIgnoreCase(groupProviderConfig) || "luckperm".equalsIgnoreCase(groupProviderConfig)) {
-                AreaControlAPI.groupProvider = LuckPermBackedGroupProvider.INSTANCE;
+                AreaControlAPI.groupProvider = new CachingGroupProvider(LuckPermBackedGroupProvider.INSTANCE);
+                // Roles depend on groups and permissions, both of which are recalculated by LuckPerms upon change.
+                // With groups from elsewhere, every recalculation would throw away valid caches for nothing;
+                // changes of permissions alone are still picked up once cached roles expire.
+                theApi.getEventBus().subscribe(UserDataRecalculateEvent.class, e -> {
+                    var playerId = e.getUser().getUniqueId();
+                    CachingGroupProvider.invalidate(playerId);
+                    AreaRoleCache.INSTANCE.invalidate(playerId);
+                });
+                // Group data includes inherited groups, which are also groups of every member.
+                theApi.getEventBus().subscribe(GroupDataRecalculateEvent.class, e -> {
+                    CachingGroupProvider.invalidateAll();
+                    AreaRoleCache.INSTANCE.invalidateAll();
+                });
             }
         } catch (IllegalStateException e) {
             LOGGER.warn("Failed to initialize LuckPerms compatibilities. Details: ", e);
@@ -4,22 +4,24 @@ import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.Block;
 import net.minecraftforge.registries.ForgeRegistries;
+import net.minecraftforge.registries.IForgeRegistry;
 import net.minecraftforge.server.permission.PermissionAPI;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.teacon.areacontrol.AreaControl;
 import org.teacon.areacontrol.AreaControlPermissions;
 import org.teacon.areacontrol.AreaControlPlayerTracker;
-import org.teacon.areacontrol.AreaManager;
 import org.teacon.areacontrol.api.Area;
-import org.teacon.areacontrol.api.AreaControlAPI;
 import org.teacon.areacontrol.api.AreaProperties;
 
 import java.util.List;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 public class AreaChecks {
@@ -29,21 +31,8 @@ public class AreaChecks {
     }
 
     public static boolean isACtrlAreaOwner(@NotNull ServerPlayer p, @Nullable Area area) {
-        if (area != null) {
-            var uid = p.getGameProfile().getId();
-            var group = AreaControlAPI.groupProvider.getGroupFor(uid);
-            // 1. Check if player is one of owners
-            if (area.owners.contains(uid) || area.ownerGroups.contains(group)) {
-                return true;
-            }
-            // 2. If area has parent area, check if it owns parent
-            var parent = AreaManager.INSTANCE.findBy(area.belongingArea);
-            if (parent != null && (parent.owners.contains(uid) || parent.ownerGroups.contains(group))) {
-                return true;
-            }
-        }
-        // 3. Check if player is admin.
-        return isACtrlAdmin(p);
+        // Owner of the area or its parent, or admin; see AreaRoleCache
+        return AreaRoleCache.INSTANCE.isOwner(p, area);
     }
 
     public static boolean isACtrlAreaBuilder(@NotNull ServerPlayer p, @Nullable Area area) {
@@ -51,23 +40,8 @@ public class AreaChecks {
     }
 
     public static boolean isACtrlAreaBuilder(@NotNull ServerPlayer p, @Nullable Area area, boolean includeParent) {
-        if (area != null) {
-            var uid = p.getGameProfile().getId();
-            var group = AreaControlAPI.groupProvider.getGroupFor(uid);
-            // 1. Check if player is one of builders
-            if (area.owners.contains(uid) || area.builders.contains(uid) || area.ownerGroups.contains(group) || area.builderGroups.contains(group)) {
-                return true;
-            }
-            // 2. If area has parent area, check if it owns parent
-            if (includeParent) {
-                var parent = AreaManager.INSTANCE.findBy(area.belongingArea);
-                if (parent != null && (parent.owners.contains(uid) || parent.builders.contains(uid) || parent.ownerGroups.contains(group) || parent.builderGroups.contains(group))) {
-                    return true;
-                }
-            }
-        }
-        // 3. Check if player is admin.
-        return isACtrlAdmin(p);
+        // Owner or builder of the area (or its parent if includeParent), or admin; see AreaRoleCache
+        return AreaRoleCache.INSTANCE.isBuilder(p, area, includeParent);
     }
 
     public static void checkInv(List<ItemStack> inv, @Nullable Area currentArea, Player player) {
@@ -87,17 +61,9 @@ public class AreaChecks {
 
     // This is a separate method because area.allow_possess currently has a different logic
     private static boolean checkPossess(Area area, Item item) {
-        var targetId = ForgeRegistries.ITEMS.getKey(item);
-        if (targetId != null) {
-            var objSpecific = AreaProperties.getBoolOptional(area, AreaProperties.ALLOW_POSSESS + "." + targetId);
-            if (objSpecific.isPresent()) {
-                return objSpecific.get();
-            } else {
-                var modSpecific = AreaProperties.getBoolOptional(area, AreaProperties.ALLOW_POSSESS + "." + targetId.getNamespace());
-                if (modSpecific.isPresent()) {
-                    return modSpecific.get();
-                }
-            }
+        var specific = AreaProperties.getEffectiveFor(area, AreaProperties.ALLOW_POSSESS, item, ITEM_ID);
+        if (specific != null) {
+            return specific;
         }
         // FIXME Use global fallback instead
         return true;
@@ -125,21 +91,75 @@ public class AreaChecks {
             }
         }
         if (targetId != null) {
-            var objSpecific = AreaProperties.getBoolOptional(area, prop + "." + targetId);
-            if (objSpecific.isPresent()) {
-                return objSpecific.get();
+            var objSpecific = AreaProperties.getEffective(area, prop, targetId.getNamespace(), targetId.getPath());
+            if (objSpecific != null) {
+                return objSpecific;
             } else {
-                var modSpecific = AreaProperties.getBoolOptional(area, prop + "." + targetId.getNamespace());
-                if (modSpecific.isPresent()) {
-                    return modSpecific.get();
+                var modSpecific = AreaProperties.getEffective(area, prop, targetId.getNamespace(), null);
+                if (modSpecific != null) {
+                    return modSpecific;
                 }
             }
         }
-        if (defaultValue != null) {
-            return AreaProperties.getBoolOptional(area, prop).orElseGet(defaultValue);
-        } else {
-            return AreaProperties.getBool(area, prop);
+        var value = AreaProperties.getEffective(area, prop);
+        if (value != null) {
+            return value;
+        }
+        return defaultValue != null ? defaultValue.get() : false;
+    }
+
+    /**
+     * Same as {@link #checkPropFor(Area, Entity, String, ResourceLocation, Supplier)}, but for the
+     * object itself rather than its registry name. Object-specific and mod-specific rules are
+     * resolved once per area and object, so the registry is only consulted the first time.
+     * @param target The object on which the action is being carried out; one of {@link Item},
+     *               {@link Block} or {@link EntityType}.
+     * @param registry The registry of the target object
+     */
+    public static <T> boolean checkPropFor(final @Nullable Area area, final @Nullable Entity actor,
+                                           final @NotNull String prop, final @NotNull T target,
+                                           final @NotNull IForgeRegistry<T> registry,
+                                           final @Nullable Supplier<@NotNull Boolean> defaultValue) {
+        if (actor != null) {
+            if (AreaControl.singlePlayerServerChecker.test(actor.getServer())) {
+                return true;
+            }
+            if (AreaControlPlayerTracker.INSTANCE.hasBypassModeOnForArea(actor, area)) {
+                return true;
+            }
+        }
+        var specific = AreaProperties.getEffectiveFor(area, prop, target, idFunction(registry));
+        if (specific != null) {
+            return specific;
+        }
+        var value = AreaProperties.getEffective(area, prop);
+        if (value != null) {
+            return value;
+        }
+        return defaultValue != null ? defaultValue.get() : false;
+    }
+
+    private static final Function<Item, String> ITEM_ID = registryId(ForgeRegistries.ITEMS);
+    private static final Function<Block, String> BLOCK_ID = registryId(ForgeRegistries.BLOCKS);
+    private static final Function<EntityType<?>, String> ENTITY_TYPE_ID = registryId(ForgeRegistries.ENTITY_TYPES);
+
+    @SuppressWarnings("unchecked")
+    private static <T> Function<T, String> idFunction(IForgeRegistry<T> registry) {
+        if (registry == ForgeRegistries.ITEMS) {
+            return (Function<T, String>) ITEM_ID;
+        } else if (registry == ForgeRegistries.BLOCKS) {
+            return (Function<T, String>) BLOCK_ID;
+        } else if (registry == ForgeRegistries.ENTITY_TYPES) {
+            return (Function<T, String>) (Function<?, String>) ENTITY_TYPE_ID;
         }
+        return registryId(registry);
+    }
+
+    private static <T> Function<T, String> registryId(IForgeRegistry<T> registry) {
+        return o -> {
+            var id = registry.getKey(o);
+            return id == null ? null : id.toString();
+        };
     }
 
 }
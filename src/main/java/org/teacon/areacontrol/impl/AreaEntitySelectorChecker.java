@@ -1,14 +1,25 @@
 package org.teacon.areacontrol.impl;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.level.BaseCommandBlock;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
 import net.minecraft.world.phys.Vec3;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.teacon.areacontrol.AreaControlConfig;
 import org.teacon.areacontrol.AreaManager;
+import org.teacon.areacontrol.api.Area;
 import org.teacon.areacontrol.api.AreaProperties;
+import org.teacon.areacontrol.impl.index.AreaHierarchy;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.function.Supplier;
 
 public class AreaEntitySelectorChecker {
@@ -23,33 +34,107 @@ public class AreaEntitySelectorChecker {
 
         /*
          * Implementation summary
-         * This is an O(n) algorithm to check if entity selector initiated
+         * This is an O(log n) algorithm to check if entity selector initiated
          * within an area can include entity from another area.
          * Its best-case is initiator and target entity are within the same area,
          * making this O(1) (6 comparisons).
-         * Its average case is we have to walk along the area hierarchy tree,
-         * checking properties of each area, which is O(n).
+         * Otherwise, we find the common ancestor of both areas via jump pointers,
+         * which is O(log n), then check that the properties hold along the way up
+         * and down the area hierarchy tree, which is O(1) thanks to per-area
+         * precomputed counts. See AreaHierarchy.
          */
 
+        var rules = rulesFor(sourceStack);
+        // If the command source is neither entity nor command block, we will skip the check.
+        // Otherwise, we will do the actual check.
+        return rules == null || check0(sourceStack, e, rules.selectFromChild, rules.selectFromParent,
+                rules.selectFromChildFallBack, rules.selectFromParentFallBack);
+    }
+
+    /**
+     * Remove all entities that the command source may not select from the given list, i.e. bulk
+     * version of {@link #check(CommandSourceStack, Entity)}.
+     * <p>
+     * The area of the command source is only resolved once. Target entities are resolved in bulk,
+     * grouped by chunk, and the check is only done once per distinct target area.
+     * @param sourceStack The initiator of entity selector
+     * @param entities The entities that may or may not be selected; modified in place
+     * @return Number of entities removed
+     */
+    public static <T extends Entity> int filter(CommandSourceStack sourceStack, List<T> entities) {
+        var rules = rulesFor(sourceStack);
+        final int size = entities.size();
+        if (rules == null || size == 0) {
+            return 0;
+        }
+        var area = AreaManager.INSTANCE.findBy(sourceStack.getLevel(), sourceStack.getPosition());
+        // Positions and chunks of all targets, grouped by dimension. Selectors from command blocks
+        // rarely reach into other dimensions, so this is usually one group.
+        final var positions = new BlockPos[size];
+        final var chunks = new long[size];
+        final var byDimension = new IdentityHashMap<ResourceKey<Level>, IntArrayList>();
+        for (int i = 0; i < size; i++) {
+            var e = entities.get(i);
+            // Same position as check0, see there.
+            positions[i] = BlockPos.containing(e.xo, e.yo, e.zo);
+            chunks[i] = ChunkPos.asLong(positions[i].getX() >> 4, positions[i].getZ() >> 4);
+            byDimension.computeIfAbsent(e.level().dimension(), k -> new IntArrayList()).add(i);
+        }
+        final var targetAreas = new Area[size];
+        for (var entry : byDimension.entrySet()) {
+            var indices = entry.getValue();
+            // Sorting by chunk lets targets in the same chunk share one bucket lookup.
+            indices.sort((int a, int b) -> Long.compare(chunks[a], chunks[b]));
+            var sortedPositions = new ArrayList<BlockPos>(indices.size());
+            for (int i = 0; i < indices.size(); i++) {
+                sortedPositions.add(positions[indices.getInt(i)]);
+            }
+            var found = AreaManager.INSTANCE.findBy(entry.getKey(), sortedPositions);
+            for (int i = 0; i < indices.size(); i++) {
+                targetAreas[indices.getInt(i)] = found[i];
+            }
+        }
+        // The source area is the same for all targets, so the verdict only depends on the target area (including wildness).
+        final var verdicts = new IdentityHashMap<Area, Boolean>();
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            var targetArea = targetAreas[i];
+            var allowed = verdicts.get(targetArea);
+            if (allowed == null) {
+                allowed = checkBetween(area, targetArea, rules.selectFromChild, rules.selectFromParent,
+                        rules.selectFromChildFallBack, rules.selectFromParentFallBack);
+                verdicts.put(targetArea, allowed);
+            }
+            if (allowed) {
+                entities.set(kept++, entities.get(i));
+            }
+        }
+        entities.subList(kept, size).clear();
+        return size - kept;
+    }
+
+    /**
+     * Properties, and their fallback values, that decide whether the command source may select
+     * entities in other areas.
+     */
+    private record SelectorRules(String selectFromChild, String selectFromParent,
+                                 Supplier<@NotNull Boolean> selectFromChildFallBack,
+                                 Supplier<@NotNull Boolean> selectFromParentFallBack) {}
+
+    /**
+     * @return Rules for the given command source, or null if the command source is not restricted
+     */
+    private static @Nullable SelectorRules rulesFor(CommandSourceStack sourceStack) {
         // This check applies to entities and Command Blocks only.
         var trueSrc = sourceStack.source;
-        String selectFromChild = null, selectFromParent = null;
-        Supplier<Boolean> selectFromChildFallBack = null, selectFromParentFallBack = null;
         if (trueSrc instanceof Entity) {
-            selectFromChild = AreaProperties.ALLOW_ENTITY_USE_SELECTOR_FROM_CHILD;
-            selectFromParent = AreaProperties.ALLOW_ENTITY_USE_SELECTOR_FROM_PARENT;
-            selectFromChildFallBack = AreaControlConfig.allowEntitySelectingFromChild;
-            selectFromParentFallBack = AreaControlConfig.allowEntitySelectingFromParent;
+            return new SelectorRules(AreaProperties.ALLOW_ENTITY_USE_SELECTOR_FROM_CHILD, AreaProperties.ALLOW_ENTITY_USE_SELECTOR_FROM_PARENT,
+                    AreaControlConfig.allowEntitySelectingFromChild, AreaControlConfig.allowEntitySelectingFromParent);
         } else if (trueSrc instanceof BaseCommandBlock) {
-            selectFromChild = AreaProperties.ALLOW_CB_USE_SELECTOR_FROM_CHILD;
-            selectFromParent = AreaProperties.ALLOW_ENTITY_USE_SELECTOR_FROM_PARENT;
-            selectFromChildFallBack = AreaControlConfig.allowCBSelectingFromChild;
-            selectFromParentFallBack = AreaControlConfig.allowCBSelectingFromParent;
+            return new SelectorRules(AreaProperties.ALLOW_CB_USE_SELECTOR_FROM_CHILD, AreaProperties.ALLOW_ENTITY_USE_SELECTOR_FROM_PARENT,
+                    AreaControlConfig.allowCBSelectingFromChild, AreaControlConfig.allowCBSelectingFromParent);
         }
-        // If the command source is neither entity nor command block, we will skip the check.
-        // Otherwise, we will do the actual check.
-        return selectFromChild == null || check0(sourceStack, e, selectFromChild, selectFromParent,
-                selectFromChildFallBack, selectFromParentFallBack);
+        return null;
     }
 
     private static boolean check0(CommandSourceStack sourceStack, Entity e,
@@ -61,11 +146,71 @@ public class AreaEntitySelectorChecker {
         // Do note that, EntitySelector can select entities from a different dimension,
         // so we must use the level from the target entity.
         final var targetArea = AreaManager.INSTANCE.findBy(e.level(), new Vec3(e.xo, e.yo, e.zo));
+        return checkBetween(area, targetArea, selectFromChild, selectFromParent, selectFromChildFallBack, selectFromParentFallBack);
+    }
+
+    private static boolean checkBetween(@Nullable Area area, @Nullable Area targetArea,
+                                        String selectFromChild, String selectFromParent,
+                                        Supplier<@NotNull Boolean> selectFromChildFallBack,
+                                        Supplier<@NotNull Boolean> selectFromParentFallBack) {
         // If the entity is in the same area as the selector initiator, then it may be selected
         if (area == targetArea) {
             return true;
         }
-        // Otherwise, we follow this procedure to determine.
+        var hierarchy = hierarchy();
+        int source = hierarchy.nodeOf(area), target = hierarchy.nodeOf(targetArea);
+        if (source == -2 || target == -2) {
+            // Either area has just been added or removed, after the snapshot was taken.
+            return checkByWalking(area, targetArea, selectFromChild, selectFromParent, selectFromChildFallBack, selectFromParentFallBack);
+        }
+        // This is the same procedure as checkByWalking, see there for details.
+        // 1. Walk up from the parent of the source area to the lowest area that is the same as,
+        //    or an ancestor of, the target area. Wildness (-1) counts as the ancestor of all.
+        var commonAncestor = -1;
+        if (source >= 0) {
+            var parent = hierarchy.parentOf(source);
+            commonAncestor = hierarchy.commonAncestorOf(parent, target);
+            var fallback = selectFromChildFallBack.get();
+            if (commonAncestor >= 0) {
+                if (!hierarchy.allowsAlongPath(parent, hierarchy.parentOf(commonAncestor), selectFromChild, fallback)) {
+                    return false;
+                }
+            } else if (!fallback || !hierarchy.allowsAlongPath(parent, -1, selectFromChild, true)) {
+                // Walking up to the wildness includes the wildness itself, which has nothing but the fallback.
+                return false;
+            }
+        }
+        // 2. Walk down from there to the target area, excluding where we started.
+        return commonAncestor == target
+                || hierarchy.allowsAlongPath(target, commonAncestor, selectFromParent, selectFromParentFallBack.get());
+    }
+
+    private static final List<String> SELECTOR_PROPERTIES = List.of(
+            AreaProperties.ALLOW_ENTITY_USE_SELECTOR_FROM_CHILD, AreaProperties.ALLOW_ENTITY_USE_SELECTOR_FROM_PARENT,
+            AreaProperties.ALLOW_CB_USE_SELECTOR_FROM_CHILD, AreaProperties.ALLOW_CB_USE_SELECTOR_FROM_PARENT);
+
+    private static volatile AreaHierarchy hierarchy = AreaHierarchy.EMPTY;
+
+    /**
+     * @return Hierarchy of all areas, rebuilt if areas or their properties have changed since it was last built
+     */
+    private static AreaHierarchy hierarchy() {
+        var current = hierarchy;
+        if (current.indexVersion != AreaManager.INSTANCE.getIndexVersion() || current.propertyGeneration != AreaProperties.getGeneration()) {
+            hierarchy = current = AreaManager.INSTANCE.buildHierarchy(SELECTOR_PROPERTIES);
+        }
+        return current;
+    }
+
+    /**
+     * Same as {@link #checkBetween}, but walks along the area hierarchy tree one area at a time,
+     * which is O(n) and takes locks. Only used if the hierarchy snapshot is outdated.
+     */
+    private static boolean checkByWalking(@Nullable Area area, @Nullable Area targetArea,
+                                          String selectFromChild, String selectFromParent,
+                                          Supplier<@NotNull Boolean> selectFromChildFallBack,
+                                          Supplier<@NotNull Boolean> selectFromParentFallBack) {
+        // We follow this procedure to determine.
         var currentlyChecking = area;
         // 1. Walk up from the area hierarchy tree, checking if all the parent areas
         //    allow "selecting entities from child area".
@@ -3,8 +3,6 @@ package org.teacon.areacontrol.impl;
 import org.jetbrains.annotations.Nullable;
 import org.teacon.areacontrol.api.Area;
 
-import java.math.BigInteger;
-
 public class AreaMath {
 
     public enum SetRelation {
@@ -21,11 +19,6 @@ public class AreaMath {
         }
     }
 
-    /**
-     * Sufficiently large number used for calculating area volume.
-     */
-    public static final BigInteger VERY_BIG_NUMBER = BigInteger.valueOf(Long.MAX_VALUE).pow(3);
-
     public static boolean isPointIn(@Nullable Area area, double x, double y, double z) {
         return area == null || (area.minX <= x && area.maxX >= x && area.minY <= y && area.maxY >= y && area.minZ <= z && area.maxZ >= z);
     }
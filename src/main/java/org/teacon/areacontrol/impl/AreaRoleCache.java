@@ -0,0 +1,160 @@
+package org.teacon.areacontrol.impl;
+
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.server.permission.PermissionAPI;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.teacon.areacontrol.AreaControlPermissions;
+import org.teacon.areacontrol.AreaManager;
+import org.teacon.areacontrol.api.Area;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the role each player has in each area, so that owner and builder checks need neither
+ * a group lookup, a parent lookup nor a permission query most of the time.
+ * <p>
+ * Everything cached for a player is dropped at once when it may be outdated: after owners, builders
+ * or the area hierarchy change (see {@link #invalidateAll()}), after the permissions or groups of the
+ * player change (see {@link #invalidate(UUID)}), after groups of anyone change (see
+ * {@link CachingGroupProvider#getVersion()}), and in any case after a few seconds, as not every
+ * change of permissions is announced, e.g. granting operator status.
+ */
+public enum AreaRoleCache {
+
+    INSTANCE;
+
+    /**
+     * Roles of a player in an area. Roles in the parent area are kept apart, as builder checks may
+     * or may not take the parent into account.
+     */
+    private static final byte NONE = 0, OWNER = 1, BUILDER = 2, PARENT_OWNER = 4, PARENT_BUILDER = 8;
+
+    private static final long TIME_TO_LIVE = TimeUnit.SECONDS.toNanos(5);
+
+    private final AtomicLong version = new AtomicLong();
+    private final Map<UUID, PlayerRoles> players = new ConcurrentHashMap<>();
+    private final Map<UUID, AreaGroups> areaGroups = new ConcurrentHashMap<>();
+
+    /**
+     * Owner groups and builder groups of an area, in form of {@link GroupBits}.
+     */
+    private record AreaGroups(long version, long[] owners, long[] builders) {}
+
+    private static final class PlayerRoles {
+        final long version, groupVersion, expiry;
+        /**
+         * All groups of the player, in form of {@link GroupBits}.
+         */
+        final long[] groups;
+        /**
+         * Whether the player has {@link AreaControlPermissions#AC_ADMIN}; null if not queried yet.
+         */
+        volatile Boolean admin = null;
+        final Map<UUID, Byte> roles = new ConcurrentHashMap<>();
+
+        PlayerRoles(long version, long groupVersion, long expiry, long[] groups) {
+            this.version = version;
+            this.groupVersion = groupVersion;
+            this.expiry = expiry;
+            this.groups = groups;
+        }
+    }
+
+    public boolean isAdmin(@NotNull ServerPlayer p) {
+        var entry = this.entryOf(p);
+        var admin = entry.admin;
+        if (admin == null) {
+            entry.admin = admin = PermissionAPI.getPermission(p, AreaControlPermissions.AC_ADMIN);
+        }
+        return admin;
+    }
+
+    public boolean isOwner(@NotNull ServerPlayer p, @Nullable Area area) {
+        return (this.rolesOf(p, area) & (OWNER | PARENT_OWNER)) != 0 || this.isAdmin(p);
+    }
+
+    public boolean isBuilder(@NotNull ServerPlayer p, @Nullable Area area, boolean includeParent) {
+        var mask = includeParent ? OWNER | BUILDER | PARENT_OWNER | PARENT_BUILDER : OWNER | BUILDER;
+        return (this.rolesOf(p, area) & mask) != 0 || this.isAdmin(p);
+    }
+
+    /**
+     * Drop everything cached. Must be called after owners or builders of any area, or the parent of
+     * any area, have been changed.
+     */
+    public void invalidateAll() {
+        this.version.incrementAndGet();
+        // Also forget removed areas; anything put back concurrently is outdated by the new version anyway.
+        this.areaGroups.clear();
+    }
+
+    /**
+     * Drop everything cached for the given player, e.g. after their permissions or groups have changed.
+     */
+    public void invalidate(UUID playerId) {
+        this.players.remove(playerId);
+    }
+
+    private byte rolesOf(ServerPlayer p, @Nullable Area area) {
+        if (area == null) {
+            return NONE;
+        }
+        var entry = this.entryOf(p);
+        var roles = entry.roles.get(area.uid);
+        if (roles == null) {
+            roles = this.computeRoles(p.getGameProfile().getId(), entry, area);
+            entry.roles.put(area.uid, roles);
+        }
+        return roles;
+    }
+
+    private PlayerRoles entryOf(ServerPlayer p) {
+        var playerId = p.getGameProfile().getId();
+        // Read the version before computing anything, so that a concurrent change can only make the new entry stale.
+        var version = this.version.get();
+        var groupVersion = CachingGroupProvider.getVersion();
+        var now = System.nanoTime();
+        var entry = this.players.get(playerId);
+        if (entry == null || entry.version != version || entry.groupVersion != groupVersion || now - entry.expiry > 0) {
+            entry = new PlayerRoles(version, groupVersion, now + TIME_TO_LIVE, CachingGroupProvider.getGroupBitsFor(playerId));
+            this.players.put(playerId, entry);
+        }
+        return entry;
+    }
+
+    private byte computeRoles(UUID uid, PlayerRoles player, Area area) {
+        byte roles = NONE;
+        var groups = this.groupsOf(area, player.version);
+        if (area.owners.contains(uid) || GroupBits.intersects(player.groups, groups.owners)) {
+            roles |= OWNER;
+        }
+        if (area.builders.contains(uid) || GroupBits.intersects(player.groups, groups.builders)) {
+            roles |= BUILDER;
+        }
+        var parent = AreaManager.INSTANCE.findBy(area.belongingArea);
+        if (parent != null) {
+            var parentGroups = this.groupsOf(parent, player.version);
+            if (parent.owners.contains(uid) || GroupBits.intersects(player.groups, parentGroups.owners)) {
+                roles |= PARENT_OWNER;
+            }
+            if (parent.builders.contains(uid) || GroupBits.intersects(player.groups, parentGroups.builders)) {
+                roles |= PARENT_BUILDER;
+            }
+        }
+        return roles;
+    }
+
+    private AreaGroups groupsOf(Area area, long version) {
+        var groups = this.areaGroups.get(area.uid);
+        if (groups == null || groups.version != version) {
+            groups = new AreaGroups(version, GroupBits.of(area.ownerGroups), GroupBits.of(area.builderGroups));
+            this.areaGroups.put(area.uid, groups);
+        }
+        return groups;
+    }
+}
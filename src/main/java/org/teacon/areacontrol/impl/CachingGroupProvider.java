@@ -0,0 +1,108 @@
+package org.teacon.areacontrol.impl;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.teacon.areacontrol.api.AreaControlAPI;
+import org.teacon.areacontrol.api.GroupProvider;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link GroupProvider} that remembers the groups of each player queried, so that owner and builder
+ * checks do not hit the player list or the permission plugin every time. Groups are also kept in
+ * form of {@link GroupBits}.
+ * <p>
+ * Remembered groups are dropped when groups change. Changes of a single player are reported via
+ * {@link #invalidate(UUID)}; changes that may affect any player, e.g. removal of a scoreboard team,
+ * via {@link #invalidateAll()}, which also advances {@link #getVersion()}, so that caches built on
+ * top of groups can tell whether they are outdated.
+ */
+public final class CachingGroupProvider implements GroupProvider {
+
+    private static final AtomicLong VERSION = new AtomicLong();
+
+    private final GroupProvider delegate;
+    private final Map<UUID, Membership> groups = new ConcurrentHashMap<>();
+
+    private record Membership(long version, @Nullable String group, Collection<String> groups, long[] bits) {}
+
+    public CachingGroupProvider(GroupProvider delegate) {
+        this.delegate = delegate;
+        // Whatever was derived from the previous provider is no longer valid.
+        invalidateAll();
+    }
+
+    /**
+     * @return Version of group data, which changes whenever the groups of any number of players may have changed.
+     */
+    public static long getVersion() {
+        return VERSION.get();
+    }
+
+    /**
+     * Forget the groups of all players.
+     */
+    public static void invalidateAll() {
+        VERSION.incrementAndGet();
+    }
+
+    /**
+     * Forget the group of the given player, e.g. after it has changed or the player has logged out.
+     * Does not advance {@link #getVersion()}; anything derived from the group of the player must be
+     * invalidated separately.
+     */
+    public static void invalidate(UUID playerId) {
+        if (AreaControlAPI.groupProvider instanceof CachingGroupProvider caching) {
+            caching.groups.remove(playerId);
+        }
+    }
+
+    @Override
+    public @NotNull Collection<String> getGroups() {
+        return this.delegate.getGroups();
+    }
+
+    @Override
+    public boolean isValidGroup(@Nullable String groupIdentifier) {
+        return this.delegate.isValidGroup(groupIdentifier);
+    }
+
+    @Override
+    public @Nullable String getGroupFor(@NotNull UUID playerId) {
+        return this.membershipOf(playerId).group;
+    }
+
+    @Override
+    public @NotNull Collection<String> getGroupsFor(@NotNull UUID playerId) {
+        return this.membershipOf(playerId).groups;
+    }
+
+    /**
+     * @return All groups of the given player, in form of {@link GroupBits}
+     */
+    static long[] getGroupBitsFor(UUID playerId) {
+        var provider = AreaControlAPI.groupProvider;
+        if (provider instanceof CachingGroupProvider caching) {
+            return caching.membershipOf(playerId).bits;
+        }
+        return GroupBits.of(provider.getGroupsFor(playerId));
+    }
+
+    private Membership membershipOf(UUID playerId) {
+        // Read the version before querying, so that a concurrent change can only make the new entry stale.
+        var version = VERSION.get();
+        var membership = this.groups.get(playerId);
+        if (membership == null || membership.version != version) {
+            // Primary group comes first, so that a single query to the delegate gives us both.
+            var groups = this.delegate.getGroupsFor(playerId);
+            var group = groups.isEmpty() ? null : groups.iterator().next();
+            membership = new Membership(version, group, groups, GroupBits.of(groups));
+            this.groups.put(playerId, membership);
+        }
+        return membership;
+    }
+}
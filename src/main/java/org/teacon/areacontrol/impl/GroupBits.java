@@ -0,0 +1,57 @@
+package org.teacon.areacontrol.impl;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sets of groups stored as bit sets, with each group name interned to a small integer ID, so that
+ * "does the player belong to any of these groups" is a word-wise AND rather than string lookups.
+ * IDs are assigned the first time a group name is seen and never reused.
+ */
+final class GroupBits {
+
+    static final long[] EMPTY = new long[0];
+
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+
+    static int idOf(String group) {
+        var id = IDS.get(group);
+        if (id != null) {
+            return id;
+        }
+        synchronized (IDS) {
+            return IDS.computeIfAbsent(group, k -> IDS.size());
+        }
+    }
+
+    static long[] of(Collection<String> groups) {
+        if (groups.isEmpty()) {
+            return EMPTY;
+        }
+        var bits = EMPTY;
+        for (var group : groups) {
+            if (group == null) {
+                continue;
+            }
+            int id = idOf(group), word = id >>> 6;
+            if (word >= bits.length) {
+                bits = Arrays.copyOf(bits, word + 1);
+            }
+            bits[word] |= 1L << id;
+        }
+        return bits;
+    }
+
+    static boolean intersects(long[] a, long[] b) {
+        for (int i = Math.min(a.length, b.length) - 1; i >= 0; i--) {
+            if ((a[i] & b[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private GroupBits() {}
+}
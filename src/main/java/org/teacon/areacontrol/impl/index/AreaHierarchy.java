@@ -0,0 +1,216 @@
+package org.teacon.areacontrol.impl.index;
+
+import org.jetbrains.annotations.Nullable;
+import org.teacon.areacontrol.api.Area;
+import org.teacon.areacontrol.api.AreaProperties;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of the parent-child hierarchy of all known instances of {@link Area}, along
+ * with the effective values of some properties along each path to the wildness.
+ * <p>
+ * Ancestors are found via jump pointers (binary lifting): for each area, its 2^k-th ancestor is
+ * stored for every k, so that the lowest common ancestor of two areas is found in O(log depth).
+ * For each tracked property, each area stores how many areas on its path to the wildness,
+ * including itself, have the property set to false, and how many have it unset, so that whether
+ * the property holds for every area between two areas is answered in O(1).
+ * <p>
+ * Like {@link AreaIndex}, a snapshot is never modified once built, and may be queried without locking.
+ */
+public final class AreaHierarchy {
+
+    public static final AreaHierarchy EMPTY = new AreaHierarchy(-1L, -1L, List.of(), List.of());
+
+    /**
+     * Version of the {@link AreaIndex} and generation of property data this snapshot was built from.
+     */
+    public final long indexVersion, propertyGeneration;
+
+    private final Map<Area, Integer> nodes = new IdentityHashMap<>();
+    private final Map<String, Integer> properties = new HashMap<>();
+    private final int[] depth;
+    /**
+     * jumps[k][i] is the 2^k-th ancestor of node i, or -1 if it is the wildness.
+     */
+    private final int[][] jumps;
+    /**
+     * denied[p][i] and unset[p][i] are the numbers of areas on the path from node i to the
+     * wildness, including node i, with property p set to false, or not set at all, respectively.
+     */
+    private final int[][] denied, unset;
+
+    /**
+     * @param areas All known areas; the parent of each area must be among them, or the area is treated as top-level.
+     * @param properties Properties to track
+     */
+    public AreaHierarchy(long indexVersion, long propertyGeneration, Collection<Area> areas, List<String> properties) {
+        this.indexVersion = indexVersion;
+        this.propertyGeneration = propertyGeneration;
+        int n = areas.size();
+        var byId = new HashMap<UUID, Integer>(n * 2);
+        var nodeAreas = new Area[n];
+        for (var area : areas) {
+            int i = this.nodes.size();
+            this.nodes.put(area, i);
+            byId.put(area.uid, i);
+            nodeAreas[i] = area;
+        }
+        var parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            var belonging = nodeAreas[i].belongingArea;
+            var p = belonging == null ? null : byId.get(belonging);
+            parent[i] = p == null ? -1 : p;
+        }
+        // Order nodes such that every parent comes before all of its children.
+        this.depth = new int[n];
+        var order = new int[n];
+        int ordered = 0;
+        var children = new int[n][];
+        var childCount = new int[n];
+        for (int i = 0; i < n; i++) {
+            if (parent[i] >= 0) {
+                childCount[parent[i]]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            children[i] = new int[childCount[i]];
+            childCount[i] = 0;
+        }
+        for (int i = 0; i < n; i++) {
+            if (parent[i] >= 0) {
+                children[parent[i]][childCount[parent[i]]++] = i;
+            } else {
+                order[ordered++] = i;
+            }
+        }
+        for (int head = 0; head < ordered; head++) {
+            int i = order[head];
+            for (int child : children[i]) {
+                this.depth[child] = this.depth[i] + 1;
+                order[ordered++] = child;
+            }
+        }
+        // Nodes not reached are part of a cycle, which a consistent hierarchy never has. Cut them
+        // loose at the wildness rather than looping forever.
+        if (ordered < n) {
+            var reached = new boolean[n];
+            for (int k = 0; k < ordered; k++) {
+                reached[order[k]] = true;
+            }
+            for (int i = 0; i < n; i++) {
+                if (!reached[i]) {
+                    parent[i] = -1;
+                    this.depth[i] = 0;
+                    order[ordered++] = i;
+                }
+            }
+        }
+        int levels = 1;
+        for (int d : this.depth) {
+            while ((1 << levels) <= d) {
+                levels++;
+            }
+        }
+        this.jumps = new int[levels][];
+        this.jumps[0] = parent;
+        for (int k = 1; k < levels; k++) {
+            var prev = this.jumps[k - 1];
+            var next = new int[n];
+            for (int i = 0; i < n; i++) {
+                next[i] = prev[i] < 0 ? -1 : prev[prev[i]];
+            }
+            this.jumps[k] = next;
+        }
+        this.denied = new int[properties.size()][n];
+        this.unset = new int[properties.size()][n];
+        var effective = new byte[n];
+        for (int p = 0; p < properties.size(); p++) {
+            var property = properties.get(p);
+            this.properties.put(property, p);
+            var denied = this.denied[p];
+            var unset = this.unset[p];
+            for (int k = 0; k < n; k++) {
+                int i = order[k], up = parent[i];
+                // 0 for unset, 1 for false, 2 for true; inherited from the parent unless set
+                var own = AreaProperties.getBoolOptional(nodeAreas[i], property, false);
+                effective[i] = own.isPresent() ? (byte) (own.get() ? 2 : 1) : up < 0 ? 0 : effective[up];
+                denied[i] = (up < 0 ? 0 : denied[up]) + (effective[i] == 1 ? 1 : 0);
+                unset[i] = (up < 0 ? 0 : unset[up]) + (effective[i] == 0 ? 1 : 0);
+            }
+        }
+    }
+
+    /**
+     * @return Node of the given area, -1 for the wildness, or -2 if the area is not known to this snapshot
+     */
+    public int nodeOf(@Nullable Area area) {
+        if (area == null) {
+            return -1;
+        }
+        var node = this.nodes.get(area);
+        return node == null ? -2 : node;
+    }
+
+    /**
+     * @return Parent node of the given node, or -1 if it is the wildness
+     */
+    public int parentOf(int node) {
+        return node < 0 ? -1 : this.jumps[0][node];
+    }
+
+    /**
+     * @return The lowest node that is the same as or an ancestor of both given nodes; -1 for the wildness
+     */
+    public int commonAncestorOf(int a, int b) {
+        if (a < 0 || b < 0) {
+            return -1;
+        }
+        if (this.depth[a] < this.depth[b]) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        for (int k = this.jumps.length - 1; k >= 0; k--) {
+            if (this.depth[a] - (1 << k) >= this.depth[b]) {
+                a = this.jumps[k][a];
+            }
+        }
+        if (a == b) {
+            return a;
+        }
+        for (int k = this.jumps.length - 1; k >= 0; k--) {
+            if (this.jumps[k][a] != this.jumps[k][b]) {
+                a = this.jumps[k][a];
+                b = this.jumps[k][b];
+            }
+        }
+        return this.jumps[0][a];
+    }
+
+    /**
+     * Check whether the given property holds for every area on the path from one node up to one
+     * of its ancestors, i.e. {@link AreaProperties#getBoolOptional(Area, String)} gives true, or
+     * nothing while the fallback is true.
+     * @param from The lower end of the path, inclusive
+     * @param to The upper end of the path, exclusive; -1 to include everything up to the wildness,
+     *           the wildness itself excluded
+     * @param property One of the properties given upon construction
+     */
+    public boolean allowsAlongPath(int from, int to, String property, boolean fallback) {
+        if (from < 0) {
+            return true;
+        }
+        int p = this.properties.get(property);
+        int denied = this.denied[p][from] - (to < 0 ? 0 : this.denied[p][to]);
+        if (denied > 0) {
+            return false;
+        }
+        return fallback || this.unset[p][from] - (to < 0 ? 0 : this.unset[p][to]) == 0;
+    }
+}
@@ -0,0 +1,329 @@
+package org.teacon.areacontrol.impl.index;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import org.jetbrains.annotations.Nullable;
+import org.teacon.areacontrol.api.Area;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of all known instances of {@link Area}, indexed by dimensions and chunk
+ * positions covered by each area.
+ * <p>
+ * A snapshot is never modified once published. Mutations go through an {@link Editor}, which
+ * copies only the dimensions and regions it touches and produces a new snapshot with a higher
+ * {@link #version}. Readers may therefore query a snapshot without any locking.
+ * <p>
+ * Chunk buckets of each dimension are grouped into regions of 32 * 32 chunks. A region stores
+ * its buckets in a flat array, so that checking whether any area covers a chunk only takes
+ * one region lookup and one array read, and publishing a change only copies the regions it
+ * touches rather than every bucket of the dimension.
+ */
+public final class AreaIndex {
+
+    public static final AreaIndex EMPTY = new AreaIndex(0L, Collections.emptyMap());
+
+    private static final Area[] NO_AREAS = new Area[0];
+
+    /**
+     * Order of areas within one chunk bucket: the deepest area comes first, so that the first
+     * area containing a position is the innermost one. Areas containing the same position always
+     * differ in depth; the UUID only makes the order of unrelated areas deterministic.
+     */
+    private static final Comparator<Area> INNERMOST_FIRST = Comparator.<Area>comparingInt(a -> -a.depth).thenComparing(a -> a.uid);
+
+    /**
+     * Monotonically increasing version of this snapshot. Every published mutation results in
+     * a snapshot with a strictly greater version.
+     */
+    public final long version;
+
+    /**
+     * Regions per dimension, keyed by {@link ChunkPos#asLong(int, int)} of the region.
+     * Regions without any non-empty bucket are absent.
+     */
+    private final Map<ResourceKey<Level>, Long2ObjectOpenHashMap<Region>> perWorldRegions;
+
+    private AreaIndex(long version, Map<ResourceKey<Level>, Long2ObjectOpenHashMap<Region>> perWorldRegions) {
+        this.version = version;
+        this.perWorldRegions = perWorldRegions;
+    }
+
+    private static long regionOf(int chunkX, int chunkZ) {
+        return ChunkPos.asLong(chunkX >> 5, chunkZ >> 5);
+    }
+
+    private static int slotOf(int chunkX, int chunkZ) {
+        return ((chunkZ & 31) << 5) | (chunkX & 31);
+    }
+
+    private @Nullable Region regionAt(ResourceKey<Level> dim, int chunkX, int chunkZ) {
+        var regionsInDim = this.perWorldRegions.get(dim);
+        return regionsInDim == null ? null : regionsInDim.get(regionOf(chunkX, chunkZ));
+    }
+
+    /**
+     * @param dim The dimension to query
+     * @param chunkX The x coordinate of the chunk to query
+     * @param chunkZ The z coordinate of the chunk to query
+     * @return All areas that cover at least one block of the given chunk, innermost area first.
+     *         The returned array is shared and must not be modified.
+     */
+    public Area[] areasAt(ResourceKey<Level> dim, int chunkX, int chunkZ) {
+        var region = this.regionAt(dim, chunkX, chunkZ);
+        if (region == null) {
+            return NO_AREAS;
+        }
+        var bucket = region.buckets[slotOf(chunkX, chunkZ)];
+        return bucket == null ? NO_AREAS : bucket;
+    }
+
+    /**
+     * @param dim The dimension to query
+     * @param chunkX The x coordinate of the chunk to query
+     * @param chunkZ The z coordinate of the chunk to query
+     * @return true if at least one area covers at least one block of the given chunk.
+     */
+    public boolean isOccupied(ResourceKey<Level> dim, int chunkX, int chunkZ) {
+        var region = this.regionAt(dim, chunkX, chunkZ);
+        return region != null && region.buckets[slotOf(chunkX, chunkZ)] != null;
+    }
+
+    public Editor edit() {
+        return new Editor(this);
+    }
+
+    /**
+     * Build a new snapshot containing exactly the given areas, discarding everything in this snapshot.
+     * <p>
+     * Unlike adding areas one by one through an {@link Editor}, buckets are built in their final form
+     * directly: areas are visited innermost first, so that appending keeps every bucket in order.
+     * Depth of all given areas must be known.
+     */
+    public AreaIndex rebuild(Map<ResourceKey<Level>, ? extends Collection<Area>> areasPerWorld) {
+        var perWorldRegions = new IdentityHashMap<ResourceKey<Level>, Long2ObjectOpenHashMap<Region>>(areasPerWorld.size());
+        for (var entry : areasPerWorld.entrySet()) {
+            var sorted = entry.getValue().toArray(NO_AREAS);
+            if (sorted.length == 0) {
+                continue;
+            }
+            Arrays.sort(sorted, INNERMOST_FIRST);
+            var regionsInDim = new Long2ObjectOpenHashMap<Region>();
+            for (var area : sorted) {
+                for (int z = area.minZ >> 4; z <= area.maxZ >> 4; z++) {
+                    Region region = null;
+                    long regionPos = 0L;
+                    for (int x = area.minX >> 4; x <= area.maxX >> 4; x++) {
+                        // Consecutive chunks in a row mostly fall into the same region
+                        if (region == null || regionOf(x, z) != regionPos) {
+                            regionPos = regionOf(x, z);
+                            region = regionsInDim.get(regionPos);
+                            if (region == null) {
+                                region = new Region();
+                                regionsInDim.put(regionPos, region);
+                            }
+                        }
+                        var slot = slotOf(x, z);
+                        var bucket = region.buckets[slot];
+                        if (bucket == null) {
+                            region.buckets[slot] = new Area[] { area };
+                            region.nonEmpty++;
+                        } else {
+                            var grown = Arrays.copyOf(bucket, bucket.length + 1);
+                            grown[bucket.length] = area;
+                            region.buckets[slot] = grown;
+                        }
+                    }
+                }
+            }
+            perWorldRegions.put(entry.getKey(), regionsInDim);
+        }
+        return new AreaIndex(this.version + 1, perWorldRegions);
+    }
+
+    /**
+     * Chunk buckets of 32 * 32 chunks. Empty buckets are null.
+     */
+    private static final class Region {
+
+        final Area[][] buckets;
+        int nonEmpty;
+
+        Region() {
+            this.buckets = new Area[32 * 32][];
+        }
+
+        Region(Region original) {
+            this.buckets = original.buckets.clone();
+            this.nonEmpty = original.nonEmpty;
+        }
+    }
+
+    /**
+     * Accumulates changes against a base snapshot. Not thread-safe; callers are expected to
+     * serialize all editors (e.g. by holding a write lock), and to discard an editor once it
+     * has been published.
+     */
+    public static final class Editor {
+
+        private final AreaIndex base;
+        // Buckets that have been touched by this editor, still in their mutable form.
+        private final IdentityHashMap<ResourceKey<Level>, Long2ObjectOpenHashMap<List<Area>>> pendingBuckets = new IdentityHashMap<>();
+        // New ranges of resized areas, as minX, minY, minZ, maxX, maxY, maxZ; written to the areas upon publishing.
+        private final IdentityHashMap<Area, int[]> pendingRanges = new IdentityHashMap<>();
+
+        Editor(AreaIndex base) {
+            this.base = base;
+        }
+
+        /**
+         * Record the given area in all chunk buckets covered by its current range.
+         */
+        public Editor add(ResourceKey<Level> dim, Area area) {
+            var pending = this.pendingFor(dim);
+            for (int x = area.minX >> 4; x <= area.maxX >> 4; x++) {
+                for (int z = area.minZ >> 4; z <= area.maxZ >> 4; z++) {
+                    this.bucketForWrite(dim, pending, x, z).add(area);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Remove the given area from all chunk buckets covered by its current range.
+         * Must be called before the range of the area is changed.
+         */
+        public Editor remove(ResourceKey<Level> dim, Area area) {
+            var pending = this.pendingFor(dim);
+            for (int x = area.minX >> 4; x <= area.maxX >> 4; x++) {
+                for (int z = area.minZ >> 4; z <= area.maxZ >> 4; z++) {
+                    this.bucketForWrite(dim, pending, x, z).remove(area);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Change the range of the given area, updating only chunks covered by exactly one of the old
+         * and the new range.
+         * <p>
+         * Must be called while the area still has its old range. The new range is only written to the
+         * area upon {@link #publish()}, right before the new snapshot is created, so that whoever sees
+         * the new snapshot also sees the new range.
+         */
+        public Editor resize(ResourceKey<Level> dim, Area area, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            var pending = this.pendingFor(dim);
+            int oldMinCX = area.minX >> 4, oldMinCZ = area.minZ >> 4, oldMaxCX = area.maxX >> 4, oldMaxCZ = area.maxZ >> 4;
+            int newMinCX = minX >> 4, newMinCZ = minZ >> 4, newMaxCX = maxX >> 4, newMaxCZ = maxZ >> 4;
+            for (int x = oldMinCX; x <= oldMaxCX; x++) {
+                for (int z = oldMinCZ; z <= oldMaxCZ; z++) {
+                    if (x < newMinCX || x > newMaxCX || z < newMinCZ || z > newMaxCZ) {
+                        this.bucketForWrite(dim, pending, x, z).remove(area);
+                    }
+                }
+            }
+            for (int x = newMinCX; x <= newMaxCX; x++) {
+                for (int z = newMinCZ; z <= newMaxCZ; z++) {
+                    if (x < oldMinCX || x > oldMaxCX || z < oldMinCZ || z > oldMaxCZ) {
+                        this.bucketForWrite(dim, pending, x, z).add(area);
+                    }
+                }
+            }
+            this.pendingRanges.put(area, new int[] { minX, minY, minZ, maxX, maxY, maxZ });
+            return this;
+        }
+
+        /**
+         * @return A new snapshot containing all changes made through this editor.
+         */
+        public AreaIndex publish() {
+            var perWorldRegions = new IdentityHashMap<>(this.base.perWorldRegions);
+            for (var entry : this.pendingBuckets.entrySet()) {
+                var dim = entry.getKey();
+                var original = perWorldRegions.get(dim);
+                var regionsInDim = original == null ? new Long2ObjectOpenHashMap<Region>() : new Long2ObjectOpenHashMap<>(original);
+                // Regions already copied by this editor, which can be modified in place.
+                var copiedRegions = new Long2ObjectOpenHashMap<Region>();
+                for (var bucket : entry.getValue().long2ObjectEntrySet()) {
+                    var areas = bucket.getValue();
+                    var chunkPos = bucket.getLongKey();
+                    int chunkX = ChunkPos.getX(chunkPos), chunkZ = ChunkPos.getZ(chunkPos);
+                    long regionPos = regionOf(chunkX, chunkZ);
+                    var region = copiedRegions.get(regionPos);
+                    if (region == null) {
+                        var existing = regionsInDim.get(regionPos);
+                        region = existing == null ? new Region() : new Region(existing);
+                        copiedRegions.put(regionPos, region);
+                    }
+                    var slot = slotOf(chunkX, chunkZ);
+                    var wasEmpty = region.buckets[slot] == null;
+                    if (areas.isEmpty()) {
+                        region.buckets[slot] = null;
+                        if (!wasEmpty) {
+                            region.nonEmpty--;
+                        }
+                    } else {
+                        var packed = areas.toArray(NO_AREAS);
+                        Arrays.sort(packed, INNERMOST_FIRST);
+                        region.buckets[slot] = packed;
+                        if (wasEmpty) {
+                            region.nonEmpty++;
+                        }
+                    }
+                }
+                for (var region : copiedRegions.long2ObjectEntrySet()) {
+                    if (region.getValue().nonEmpty == 0) {
+                        regionsInDim.remove(region.getLongKey());
+                    } else {
+                        regionsInDim.put(region.getLongKey(), region.getValue());
+                    }
+                }
+                if (regionsInDim.isEmpty()) {
+                    perWorldRegions.remove(dim);
+                } else {
+                    perWorldRegions.put(dim, regionsInDim);
+                }
+            }
+            this.pendingBuckets.clear();
+            // Readers get the new snapshot through a volatile field, so they are guaranteed to see
+            // everything written before it is created, including the new ranges.
+            for (var entry : this.pendingRanges.entrySet()) {
+                var area = entry.getKey();
+                var range = entry.getValue();
+                area.minX = range[0];
+                area.minY = range[1];
+                area.minZ = range[2];
+                area.maxX = range[3];
+                area.maxY = range[4];
+                area.maxZ = range[5];
+            }
+            this.pendingRanges.clear();
+            return new AreaIndex(this.base.version + 1, perWorldRegions);
+        }
+
+        private Long2ObjectOpenHashMap<List<Area>> pendingFor(ResourceKey<Level> dim) {
+            return this.pendingBuckets.computeIfAbsent(dim, d -> new Long2ObjectOpenHashMap<>());
+        }
+
+        private List<Area> bucketForWrite(ResourceKey<Level> dim, Long2ObjectOpenHashMap<List<Area>> pending, int chunkX, int chunkZ) {
+            var chunkPos = ChunkPos.asLong(chunkX, chunkZ);
+            var bucket = pending.get(chunkPos);
+            if (bucket == null) {
+                var existingBucket = this.base.areasAt(dim, chunkX, chunkZ);
+                bucket = existingBucket.length == 0 ? new ArrayList<>(1) : new ArrayList<>(Arrays.asList(existingBucket));
+                pending.put(chunkPos, bucket);
+            }
+            return bucket;
+        }
+    }
+}
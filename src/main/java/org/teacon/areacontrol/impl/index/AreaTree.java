@@ -0,0 +1,419 @@
+package org.teacon.areacontrol.impl.index;
+
+import org.teacon.areacontrol.api.Area;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * R-tree of areas in one dimension, supporting queries by bounding box in logarithmic time.
+ * <p>
+ * Unlike {@link AreaIndex}, this tree is mutable and not thread-safe. Callers are expected to
+ * guard all access with a lock. Bounds of each area are captured upon {@link #insert(Area)};
+ * if the range of an area changes, it must be inserted again afterwards.
+ */
+public final class AreaTree {
+
+    private static final int MAX_CHILDREN = 16, MIN_CHILDREN = 6;
+
+    private Node root = new Node(true);
+    private final IdentityHashMap<Area, Entry> entries = new IdentityHashMap<>();
+
+    /**
+     * Build a tree of the given areas at once, using Sort-Tile-Recursive packing: boxes are sorted
+     * into vertical slices by x, then each slice is cut into nodes by z, level by level. This is
+     * much faster than inserting areas one by one, and gives nodes that are packed and overlap little.
+     */
+    public static AreaTree bulkLoad(Collection<Area> areas) {
+        var tree = new AreaTree();
+        List<Box> level = new ArrayList<>(areas.size());
+        for (var area : areas) {
+            var entry = new Entry(area);
+            if (tree.entries.putIfAbsent(area, entry) == null) {
+                level.add(entry);
+            }
+        }
+        boolean leaf = true;
+        while (level.size() > MAX_CHILDREN) {
+            level = pack(level, leaf);
+            leaf = false;
+        }
+        var root = new Node(leaf);
+        level.forEach(root::add);
+        root.refreshBounds();
+        tree.root = root;
+        return tree;
+    }
+
+    /**
+     * @return Nodes holding the given boxes, each having at least {@link #MIN_CHILDREN} children
+     */
+    private static List<Box> pack(List<Box> boxes, boolean leaf) {
+        int n = boxes.size();
+        int nodeCount = (n + MAX_CHILDREN - 1) / MAX_CHILDREN;
+        // Every slice needs at least MAX_CHILDREN boxes, so that its nodes are at least half full
+        int sliceCount = Math.max(1, Math.min((int) Math.ceil(Math.sqrt(nodeCount)), n / MAX_CHILDREN));
+        var sorted = new ArrayList<>(boxes);
+        sorted.sort(Comparator.comparingLong(b -> (long) b.minX + b.maxX));
+        var result = new ArrayList<Box>(nodeCount);
+        for (int s = 0; s < sliceCount; s++) {
+            var slice = sorted.subList((int) ((long) n * s / sliceCount), (int) ((long) n * (s + 1) / sliceCount));
+            slice.sort(Comparator.comparingLong(b -> (long) b.minZ + b.maxZ));
+            int m = slice.size(), groups = (m + MAX_CHILDREN - 1) / MAX_CHILDREN;
+            for (int g = 0; g < groups; g++) {
+                var node = new Node(leaf);
+                slice.subList(m * g / groups, m * (g + 1) / groups).forEach(node::add);
+                node.refreshBounds();
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Insert the given area with its current range, replacing any previously inserted range.
+     */
+    public void insert(Area area) {
+        this.remove(area);
+        var entry = new Entry(area);
+        this.entries.put(area, entry);
+        this.insertEntry(entry);
+    }
+
+    /**
+     * @return true if the area was present in this tree.
+     */
+    public boolean remove(Area area) {
+        var entry = this.entries.remove(area);
+        if (entry == null) {
+            return false;
+        }
+        var leaf = entry.parent;
+        leaf.children.remove(entry);
+        this.condense(leaf);
+        return true;
+    }
+
+    /**
+     * Visit all areas whose range has at least one block in common with the given box.
+     */
+    public void forEachIntersecting(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, Consumer<Area> action) {
+        var query = new Box(minX, minY, minZ, maxX, maxY, maxZ);
+        if (!this.root.children.isEmpty()) {
+            forEachIntersecting(this.root, query, action);
+        }
+    }
+
+    /**
+     * @return All areas whose range has at least one block in common with the given box.
+     */
+    public List<Area> findIntersecting(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        var result = new ArrayList<Area>();
+        this.forEachIntersecting(minX, minY, minZ, maxX, maxY, maxZ, result::add);
+        return result;
+    }
+
+    /**
+     * @return All areas whose range lies completely within the given box, including areas covering the same box.
+     */
+    public List<Area> findEnclosedBy(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        var query = new Box(minX, minY, minZ, maxX, maxY, maxZ);
+        var result = new ArrayList<Area>();
+        this.forEachIntersecting(minX, minY, minZ, maxX, maxY, maxZ, area -> {
+            if (query.encloses(area.minX, area.minY, area.minZ, area.maxX, area.maxY, area.maxZ)) {
+                result.add(area);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return All areas whose range completely covers the given box, including areas covering the same box.
+     */
+    public List<Area> findEnclosing(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        var query = new Box(minX, minY, minZ, maxX, maxY, maxZ);
+        var result = new ArrayList<Area>();
+        if (!this.root.children.isEmpty()) {
+            findEnclosing(this.root, query, result);
+        }
+        return result;
+    }
+
+    private static void forEachIntersecting(Node node, Box query, Consumer<Area> action) {
+        for (var child : node.children) {
+            if (child.intersects(query)) {
+                if (node.leaf) {
+                    action.accept(((Entry) child).area);
+                } else {
+                    forEachIntersecting((Node) child, query, action);
+                }
+            }
+        }
+    }
+
+    private static void findEnclosing(Node node, Box query, List<Area> result) {
+        for (var child : node.children) {
+            if (child.encloses(query.minX, query.minY, query.minZ, query.maxX, query.maxY, query.maxZ)) {
+                if (node.leaf) {
+                    result.add(((Entry) child).area);
+                } else {
+                    findEnclosing((Node) child, query, result);
+                }
+            }
+        }
+    }
+
+    private void insertEntry(Entry entry) {
+        var node = this.root;
+        while (!node.leaf) {
+            Box best = null;
+            double bestEnlargement = Double.POSITIVE_INFINITY, bestVolume = Double.POSITIVE_INFINITY;
+            for (var child : node.children) {
+                double volume = child.volume();
+                double enlargement = child.volumeIncluding(entry) - volume;
+                if (enlargement < bestEnlargement || (enlargement == bestEnlargement && volume < bestVolume)) {
+                    best = child;
+                    bestEnlargement = enlargement;
+                    bestVolume = volume;
+                }
+            }
+            node = (Node) best;
+        }
+        node.add(entry);
+        this.adjust(node, node.children.size() > MAX_CHILDREN ? split(node) : null);
+    }
+
+    /**
+     * Refresh bounds from the given node up to the root, and propagate the split of the given node, if any.
+     */
+    private void adjust(Node node, Node split) {
+        while (true) {
+            node.refreshBounds();
+            var parent = node.parent;
+            if (parent == null) {
+                if (split != null) {
+                    var newRoot = new Node(false);
+                    newRoot.add(node);
+                    newRoot.add(split);
+                    newRoot.refreshBounds();
+                    this.root = newRoot;
+                }
+                return;
+            }
+            if (split != null) {
+                parent.add(split);
+                split = parent.children.size() > MAX_CHILDREN ? split(parent) : null;
+            }
+            node = parent;
+        }
+    }
+
+    /**
+     * Quadratic split: move part of the children of the given node to a new sibling.
+     * @return The new sibling
+     */
+    private static Node split(Node node) {
+        var remaining = new ArrayList<>(node.children);
+        node.children.clear();
+        var sibling = new Node(node.leaf);
+        // Pick the pair of children that would waste the most space if put together
+        int seedA = 0, seedB = 1;
+        double worstWaste = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < remaining.size(); i++) {
+            var a = remaining.get(i);
+            for (int j = i + 1; j < remaining.size(); j++) {
+                var b = remaining.get(j);
+                double waste = a.volumeIncluding(b) - a.volume() - b.volume();
+                if (waste > worstWaste) {
+                    worstWaste = waste;
+                    seedA = i;
+                    seedB = j;
+                }
+            }
+        }
+        // Remove the later one first, so that the index of the other stays valid
+        var b = remaining.remove(seedB);
+        var a = remaining.remove(seedA);
+        node.add(a);
+        node.setBounds(a);
+        sibling.add(b);
+        sibling.setBounds(b);
+        while (!remaining.isEmpty()) {
+            // If one group needs all the rest to reach the minimum, assign all of them to it
+            if (node.children.size() + remaining.size() <= MIN_CHILDREN) {
+                remaining.forEach(node::addAndInclude);
+                break;
+            }
+            if (sibling.children.size() + remaining.size() <= MIN_CHILDREN) {
+                remaining.forEach(sibling::addAndInclude);
+                break;
+            }
+            // Pick the child with the strongest preference for one of the groups
+            int next = 0;
+            double maxPreference = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < remaining.size(); i++) {
+                var c = remaining.get(i);
+                double preference = Math.abs((node.volumeIncluding(c) - node.volume()) - (sibling.volumeIncluding(c) - sibling.volume()));
+                if (preference > maxPreference) {
+                    maxPreference = preference;
+                    next = i;
+                }
+            }
+            var c = remaining.remove(next);
+            double enlargementA = node.volumeIncluding(c) - node.volume(), enlargementB = sibling.volumeIncluding(c) - sibling.volume();
+            boolean toNode;
+            if (enlargementA != enlargementB) {
+                toNode = enlargementA < enlargementB;
+            } else if (node.volume() != sibling.volume()) {
+                toNode = node.volume() < sibling.volume();
+            } else {
+                toNode = node.children.size() <= sibling.children.size();
+            }
+            (toNode ? node : sibling).addAndInclude(c);
+        }
+        return sibling;
+    }
+
+    /**
+     * Remove underflowing nodes from the given leaf up to the root, then re-insert their entries.
+     */
+    private void condense(Node leaf) {
+        var orphans = new ArrayList<Entry>();
+        var node = leaf;
+        while (node != this.root) {
+            var parent = node.parent;
+            if (node.children.size() < MIN_CHILDREN) {
+                parent.children.remove(node);
+                collectEntries(node, orphans);
+            } else {
+                node.refreshBounds();
+            }
+            node = parent;
+        }
+        this.root.refreshBounds();
+        while (!this.root.leaf && this.root.children.size() == 1) {
+            this.root = (Node) this.root.children.get(0);
+            this.root.parent = null;
+        }
+        if (!this.root.leaf && this.root.children.isEmpty()) {
+            this.root = new Node(true);
+        }
+        for (var orphan : orphans) {
+            this.insertEntry(orphan);
+        }
+    }
+
+    private static void collectEntries(Node node, List<Entry> result) {
+        for (var child : node.children) {
+            if (node.leaf) {
+                result.add((Entry) child);
+            } else {
+                collectEntries((Node) child, result);
+            }
+        }
+    }
+
+    private static class Box {
+        int minX, minY, minZ, maxX, maxY, maxZ;
+        Node parent;
+
+        Box() {
+        }
+
+        Box(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.maxZ = maxZ;
+        }
+
+        final void setBounds(Box other) {
+            this.minX = other.minX;
+            this.minY = other.minY;
+            this.minZ = other.minZ;
+            this.maxX = other.maxX;
+            this.maxY = other.maxY;
+            this.maxZ = other.maxZ;
+        }
+
+        final void include(Box other) {
+            this.minX = Math.min(this.minX, other.minX);
+            this.minY = Math.min(this.minY, other.minY);
+            this.minZ = Math.min(this.minZ, other.minZ);
+            this.maxX = Math.max(this.maxX, other.maxX);
+            this.maxY = Math.max(this.maxY, other.maxY);
+            this.maxZ = Math.max(this.maxZ, other.maxZ);
+        }
+
+        final boolean intersects(Box other) {
+            return this.minX <= other.maxX && other.minX <= this.maxX
+                    && this.minY <= other.maxY && other.minY <= this.maxY
+                    && this.minZ <= other.maxZ && other.minZ <= this.maxZ;
+        }
+
+        final boolean encloses(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            return this.minX <= minX && maxX <= this.maxX
+                    && this.minY <= minY && maxY <= this.maxY
+                    && this.minZ <= minZ && maxZ <= this.maxZ;
+        }
+
+        // Volumes are calculated in double, as they easily exceed the range of long
+        final double volume() {
+            return (this.maxX - (double) this.minX + 1) * (this.maxY - (double) this.minY + 1) * (this.maxZ - (double) this.minZ + 1);
+        }
+
+        final double volumeIncluding(Box other) {
+            return (Math.max(this.maxX, other.maxX) - (double) Math.min(this.minX, other.minX) + 1)
+                    * (Math.max(this.maxY, other.maxY) - (double) Math.min(this.minY, other.minY) + 1)
+                    * (Math.max(this.maxZ, other.maxZ) - (double) Math.min(this.minZ, other.minZ) + 1);
+        }
+    }
+
+    private static final class Entry extends Box {
+        final Area area;
+
+        Entry(Area area) {
+            super(area.minX, area.minY, area.minZ, area.maxX, area.maxY, area.maxZ);
+            this.area = area;
+        }
+    }
+
+    private static final class Node extends Box {
+        final boolean leaf;
+        final List<Box> children = new ArrayList<>(MAX_CHILDREN + 1);
+
+        Node(boolean leaf) {
+            this.leaf = leaf;
+        }
+
+        void add(Box child) {
+            this.children.add(child);
+            child.parent = this;
+        }
+
+        void addAndInclude(Box child) {
+            this.add(child);
+            this.include(child);
+        }
+
+        void refreshBounds() {
+            if (this.children.isEmpty()) {
+                return;
+            }
+            this.setBounds(this.children.get(0));
+            for (int i = 1; i < this.children.size(); i++) {
+                this.include(this.children.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package org.teacon.areacontrol.impl.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.teacon.areacontrol.api.Area;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of changes to areas, i.e. areas being saved or removed.
+ * <p>
+ * Each record carries a checksum. A torn record at the end, e.g. from a crash during writing, is
+ * discarded together with anything after it upon {@link #replay(Handler)}.
+ * <p>
+ * Records are always appended by a single writer, which passes all records of one save at once,
+ * so that each save takes exactly one write and one sync.
+ */
+final class AreaJournal {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("AreaControl");
+
+    private static final int MAGIC = 0x4143534A; // "ACSJ"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+
+    static final byte OP_SAVE = 1, OP_REMOVE = 2;
+
+    interface Handler {
+        void accept(byte op, ByteBuffer payload) throws IOException;
+    }
+
+    private final Path file;
+
+    private FileChannel channel = null;
+    private long size = 0;
+
+    AreaJournal(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @return Number of bytes in this journal, including the header
+     */
+    synchronized long size() {
+        return this.size;
+    }
+
+    /**
+     * Pass all intact records to the given handler, then drop anything after them from the file.
+     */
+    synchronized void replay(Handler handler) throws IOException {
+        this.size = 0;
+        if (!Files.isRegularFile(this.file)) {
+            return;
+        }
+        // Not mapped, as a mapped file cannot be truncated or deleted on some platforms.
+        var buf = ByteBuffer.wrap(Files.readAllBytes(this.file));
+        long valid = 0;
+        if (buf.capacity() >= HEADER_SIZE) {
+            int magic = buf.getInt(), version = buf.getInt();
+            if (magic != MAGIC) {
+                throw new IOException(this.file + " is not an AreaControl journal");
+            }
+            if (version != FORMAT_VERSION) {
+                throw new IOException(this.file + " has unsupported format version " + version + ", expected " + FORMAT_VERSION);
+            }
+            valid = HEADER_SIZE;
+            var crc = new CRC32();
+            while (buf.remaining() >= 5) {
+                int start = buf.position();
+                byte op = buf.get();
+                int length = buf.getInt();
+                if (length < 0 || buf.remaining() < length + 4) {
+                    break;
+                }
+                var payload = buf.slice(buf.position(), length);
+                buf.position(buf.position() + length);
+                crc.reset();
+                crc.update(buf.duplicate().position(start).limit(start + 5 + length));
+                if ((int) crc.getValue() != buf.getInt()) {
+                    break;
+                }
+                if (op != OP_SAVE && op != OP_REMOVE) {
+                    throw new IOException("Unknown operation " + op + " in " + this.file);
+                }
+                handler.accept(op, payload);
+                valid = buf.position();
+            }
+        }
+        if (valid < buf.capacity()) {
+            LOGGER.warn("Discarding {} bytes of incomplete data at the end of {}", buf.capacity() - valid, this.file);
+            try (var channel = FileChannel.open(this.file, StandardOpenOption.WRITE)) {
+                channel.truncate(valid);
+            }
+        }
+        this.size = valid;
+    }
+
+    /**
+     * Append the given records, and wait until they are on the disk.
+     */
+    synchronized void append(byte[] records) throws IOException {
+        if (this.channel == null) {
+            this.channel = FileChannel.open(this.file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (this.size == 0) {
+                this.channel.truncate(0);
+                this.channel.write(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(FORMAT_VERSION).flip());
+                this.size = HEADER_SIZE;
+            }
+        }
+        var buf = ByteBuffer.wrap(records);
+        while (buf.hasRemaining()) {
+            this.channel.write(buf, this.size + buf.position());
+        }
+        this.size += records.length;
+        this.channel.force(false);
+    }
+
+    /**
+     * Close this journal and move it to the given location. Later writes start a new, empty journal.
+     */
+    synchronized void moveTo(Path target) throws IOException {
+        this.close();
+        if (this.size > 0) {
+            Files.move(this.file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        this.size = 0;
+    }
+
+    /**
+     * Close and delete this journal. Later writes start a new, empty journal.
+     */
+    synchronized void delete() throws IOException {
+        this.close();
+        Files.deleteIfExists(this.file);
+        this.size = 0;
+    }
+
+    synchronized void close() throws IOException {
+        if (this.channel != null) {
+            this.channel.close();
+            this.channel = null;
+        }
+    }
+
+    private static void writeRecord(ByteArrayOutputStream journal, byte op, byte[] payload) throws IOException {
+        var out = new DataOutputStream(journal);
+        int start = journal.size();
+        out.writeByte(op);
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.flush();
+        var crc = new CRC32();
+        crc.update(journal.toByteArray(), start, 5 + payload.length);
+        out.writeInt((int) crc.getValue());
+        out.flush();
+    }
+
+    static void writeSaveRecord(ByteArrayOutputStream journal, byte[] encodedArea) throws IOException {
+        writeRecord(journal, OP_SAVE, encodedArea);
+    }
+
+    static void writeRemoveRecord(ByteArrayOutputStream journal, Area area) throws IOException {
+        var bytes = new ByteArrayOutputStream(16);
+        BinaryAreaCodec.writeUUID(new DataOutputStream(bytes), area.uid);
+        writeRecord(journal, OP_REMOVE, bytes.toByteArray());
+    }
+
+    static UUID readRemoveRecord(ByteBuffer payload) {
+        return BinaryAreaCodec.readUUID(payload);
+    }
+}
@@ -13,6 +13,30 @@ public interface AreaRepository {
 
     void save(Collection<Area> areas) throws Exception;
 
+    /**
+     * @return true if saving a few areas costs time in proportion to the number of these areas, and
+     *         they are durable once {@link #save(Collection)} returns, so that areas may be saved as
+     *         soon as they change instead of only upon world save.
+     */
+    default boolean isIncremental() {
+        return false;
+    }
+
+    /**
+     * @return true if the given area, as returned by the last {@link #load()}, is not stored the way
+     *         this repository would store it, e.g. it has been read from legacy data, so that it should
+     *         be saved again even if it has not changed.
+     */
+    default boolean needsMigration(Area area) {
+        return false;
+    }
+
+    /**
+     * Release all resources held by this repository. Called after the final save before the server stops.
+     */
+    default void close() throws Exception {
+    }
+
     interface Factory {
         AreaRepository createFrom(Path dataRootDir);
     }
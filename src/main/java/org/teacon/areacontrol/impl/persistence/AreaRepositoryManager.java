@@ -2,6 +2,8 @@ package org.teacon.areacontrol.impl.persistence;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.teacon.areacontrol.AreaControlConfig;
+import org.teacon.areacontrol.AreaManager;
 
 import java.nio.file.Path;
 import java.util.HashMap;
@@ -28,8 +30,14 @@ public enum AreaRepositoryManager {
         return this.repoFactories.get(type).createFrom(dataRootDir);
     }
 
+    private static int loadingThreads() {
+        int threads = AreaControlConfig.loadingThreads.get();
+        return threads > 0 ? threads : ClaimFiles.defaultThreads();
+    }
+
     public static void init() {
-        INSTANCE.registerFactory("json", JsonBasedAreaRepository::new);
-        INSTANCE.registerFactory("toml", TomlBasedAreaRepository::new);
+        INSTANCE.registerFactory("json", dir -> new JsonBasedAreaRepository(dir, loadingThreads()));
+        INSTANCE.registerFactory("toml", dir -> new TomlBasedAreaRepository(dir, loadingThreads()));
+        INSTANCE.registerFactory("binary", dir -> new BinaryAreaRepository(dir, AreaManager.INSTANCE::snapshotAll));
     }
 }
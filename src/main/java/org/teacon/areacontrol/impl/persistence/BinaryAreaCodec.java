@@ -0,0 +1,146 @@
+package org.teacon.areacontrol.impl.persistence;
+
+import org.teacon.areacontrol.api.Area;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of {@link Area}, used by {@link BinaryAreaRepository}.
+ * <p>
+ * All numbers are big-endian. Strings are encoded as their length in bytes followed by UTF-8 bytes,
+ * so that they can be decoded straight from a {@link ByteBuffer}.
+ */
+final class BinaryAreaCodec {
+
+    private static final byte TYPE_BOOLEAN = 0, TYPE_STRING = 1, TYPE_INT = 2, TYPE_LONG = 3, TYPE_DOUBLE = 4;
+
+    static byte[] encode(Area area) throws IOException {
+        var bytes = new ByteArrayOutputStream(256);
+        var out = new DataOutputStream(bytes);
+        writeUUID(out, area.uid);
+        writeString(out, area.name);
+        writeString(out, area.dimension);
+        writeUUIDs(out, area.owners);
+        writeStrings(out, area.ownerGroups);
+        writeUUIDs(out, area.builders);
+        writeStrings(out, area.builderGroups);
+        out.writeInt(area.minX);
+        out.writeInt(area.minY);
+        out.writeInt(area.minZ);
+        out.writeInt(area.maxX);
+        out.writeInt(area.maxY);
+        out.writeInt(area.maxZ);
+        out.writeBoolean(area.belongingArea != null);
+        if (area.belongingArea != null) {
+            writeUUID(out, area.belongingArea);
+        }
+        out.writeInt(area.properties.size());
+        for (Map.Entry<String, Object> entry : area.properties.entrySet()) {
+            writeString(out, entry.getKey());
+            var value = entry.getValue();
+            if (value instanceof Boolean b) {
+                out.writeByte(TYPE_BOOLEAN);
+                out.writeBoolean(b);
+            } else if (value instanceof Integer i) {
+                out.writeByte(TYPE_INT);
+                out.writeInt(i);
+            } else if (value instanceof Long l) {
+                out.writeByte(TYPE_LONG);
+                out.writeLong(l);
+            } else if (value instanceof Double d) {
+                out.writeByte(TYPE_DOUBLE);
+                out.writeDouble(d);
+            } else {
+                // Anything else is stored as string, which is what the text-based formats would do anyway
+                out.writeByte(TYPE_STRING);
+                writeString(out, String.valueOf(value));
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static Area decode(ByteBuffer in) throws IOException {
+        var area = new Area();
+        area.uid = readUUID(in);
+        area.name = readString(in);
+        area.dimension = readString(in);
+        for (int i = in.getInt(); i > 0; i--) {
+            area.owners.add(readUUID(in));
+        }
+        for (int i = in.getInt(); i > 0; i--) {
+            area.ownerGroups.add(readString(in));
+        }
+        for (int i = in.getInt(); i > 0; i--) {
+            area.builders.add(readUUID(in));
+        }
+        for (int i = in.getInt(); i > 0; i--) {
+            area.builderGroups.add(readString(in));
+        }
+        area.minX = in.getInt();
+        area.minY = in.getInt();
+        area.minZ = in.getInt();
+        area.maxX = in.getInt();
+        area.maxY = in.getInt();
+        area.maxZ = in.getInt();
+        area.belongingArea = in.get() != 0 ? readUUID(in) : null;
+        for (int i = in.getInt(); i > 0; i--) {
+            var key = readString(in);
+            var type = in.get();
+            Object value = switch (type) {
+                case TYPE_BOOLEAN -> in.get() != 0;
+                case TYPE_STRING -> readString(in);
+                case TYPE_INT -> in.getInt();
+                case TYPE_LONG -> in.getLong();
+                case TYPE_DOUBLE -> in.getDouble();
+                default -> throw new IOException("Unknown type " + type + " of property " + key + " in area " + area.uid);
+            };
+            area.properties.put(key, value);
+        }
+        return area;
+    }
+
+    static void writeUUID(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    static UUID readUUID(ByteBuffer in) {
+        return new UUID(in.getLong(), in.getLong());
+    }
+
+    private static void writeUUIDs(DataOutputStream out, Collection<UUID> uuids) throws IOException {
+        out.writeInt(uuids.size());
+        for (var uuid : uuids) {
+            writeUUID(out, uuid);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        var bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeStrings(DataOutputStream out, Collection<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (var s : strings) {
+            writeString(out, s);
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        var bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private BinaryAreaCodec() {}
+}
@@ -0,0 +1,178 @@
+package org.teacon.areacontrol.impl.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.teacon.areacontrol.api.Area;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Stores all areas in one binary snapshot file, plus an append-only journal of changes made since.
+ * <p>
+ * Loading reads the snapshot at once and decodes it in one pass, instead of opening and parsing
+ * one file per area. Saving and removing only append records to an {@link AreaJournal}. Once the
+ * journal has grown larger than the snapshot, the snapshot is rewritten from all live areas and the
+ * journal is emptied.
+ */
+public class BinaryAreaRepository implements AreaRepository {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("AreaControl");
+
+    private static final int SNAPSHOT_MAGIC = 0x41435342; // "ACSB"
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Journals smaller than this are never compacted, regardless of the snapshot size.
+     */
+    private static final long MIN_COMPACTION_SIZE = 64 * 1024;
+
+    private final Path snapshotFile;
+    private final AreaJournal journal;
+    /**
+     * Supplies copies of all live areas, i.e. content of the next snapshot. Called on the thread
+     * saving or removing areas.
+     */
+    private final Supplier<Collection<Area>> liveAreas;
+    private long snapshotSize = 0;
+    /**
+     * After a failed compaction, the journal size to reach before trying again; 0 if the last one succeeded.
+     */
+    private long retryCompactionSize = 0;
+
+    /**
+     * @param liveAreas Supplier of copies of all live areas, which may be serialized on any thread
+     */
+    public BinaryAreaRepository(Path dataDirRoot, Supplier<Collection<Area>> liveAreas) {
+        this.snapshotFile = dataDirRoot.resolve("claims.bin");
+        this.journal = new AreaJournal(dataDirRoot.resolve("claims.journal"));
+        this.liveAreas = liveAreas;
+    }
+
+    @Override
+    public synchronized Collection<Area> load() throws Exception {
+        var areas = new LinkedHashMap<UUID, Area>();
+        this.snapshotSize = 0;
+        this.retryCompactionSize = 0;
+        if (Files.isRegularFile(this.snapshotFile)) {
+            // Read into the heap rather than mapping it, as a mapped file cannot be replaced on Windows.
+            var buf = ByteBuffer.wrap(Files.readAllBytes(this.snapshotFile));
+            this.snapshotSize = buf.capacity();
+            try {
+                int magic = buf.getInt(), version = buf.getInt();
+                if (magic != SNAPSHOT_MAGIC) {
+                    throw new IOException(this.snapshotFile + " is not an AreaControl claims data file");
+                }
+                if (version != FORMAT_VERSION) {
+                    throw new IOException(this.snapshotFile + " has unsupported format version " + version + ", expected " + FORMAT_VERSION);
+                }
+                for (int i = buf.getInt(); i > 0; i--) {
+                    int length = buf.getInt();
+                    var record = buf.slice(buf.position(), length);
+                    buf.position(buf.position() + length);
+                    var area = BinaryAreaCodec.decode(record);
+                    areas.put(area.uid, area);
+                }
+            } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                throw new IOException("Claims data file " + this.snapshotFile + " is truncated", e);
+            }
+        }
+        this.journal.replay((op, payload) -> {
+            if (op == AreaJournal.OP_SAVE) {
+                var area = BinaryAreaCodec.decode(payload);
+                areas.put(area.uid, area);
+            } else {
+                areas.remove(AreaJournal.readRemoveRecord(payload));
+            }
+        });
+        return new ArrayList<>(areas.values());
+    }
+
+    @Override
+    public synchronized void remove(Area areaToRemove) throws Exception {
+        var records = new ByteArrayOutputStream();
+        AreaJournal.writeRemoveRecord(records, areaToRemove);
+        this.append(records.toByteArray());
+    }
+
+    @Override
+    public synchronized void save(Collection<Area> areas) throws Exception {
+        if (areas.isEmpty()) {
+            return;
+        }
+        var records = new ByteArrayOutputStream();
+        for (Area area : areas) {
+            AreaJournal.writeSaveRecord(records, BinaryAreaCodec.encode(area));
+        }
+        this.append(records.toByteArray());
+    }
+
+    @Override
+    public boolean isIncremental() {
+        return true;
+    }
+
+    @Override
+    public synchronized void close() throws Exception {
+        this.journal.close();
+    }
+
+    private void append(byte[] records) throws IOException {
+        this.journal.append(records);
+        long size = this.journal.size();
+        if (size > Math.max(Math.max(MIN_COMPACTION_SIZE, this.snapshotSize), this.retryCompactionSize)) {
+            try {
+                this.compact();
+                this.retryCompactionSize = 0;
+            } catch (IOException | RuntimeException e) {
+                // Changes are safe in the journal, so we can simply try again later. Not upon the very
+                // next change, though, as rewriting all areas on every change defeats the journal.
+                this.retryCompactionSize = 2 * size;
+                LOGGER.warn("Failed to compact claims data, will retry once the journal has grown to {} bytes.", this.retryCompactionSize, e);
+            }
+        }
+    }
+
+    /**
+     * Write all live areas to a new snapshot, then empty the journal.
+     * <p>
+     * Live areas include everything in the journal, as areas are only saved or removed after they
+     * have been changed. The journal is only emptied after the new snapshot has replaced the old one.
+     * If we crash in between, replaying the journal on top of the new snapshot yields the same result.
+     */
+    private void compact() throws IOException {
+        var areas = this.liveAreas.get();
+        var tmp = this.snapshotFile.resolveSibling(this.snapshotFile.getFileName() + ".tmp");
+        long size;
+        try (var channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            var header = ByteBuffer.allocate(12).putInt(SNAPSHOT_MAGIC).putInt(FORMAT_VERSION).putInt(areas.size()).flip();
+            channel.write(header);
+            var length = ByteBuffer.allocate(4);
+            for (var area : areas) {
+                var record = BinaryAreaCodec.encode(area);
+                channel.write(length.clear().putInt(record.length).flip());
+                var buf = ByteBuffer.wrap(record);
+                while (buf.hasRemaining()) {
+                    channel.write(buf);
+                }
+            }
+            channel.force(false);
+            size = channel.size();
+        }
+        Files.move(tmp, this.snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.snapshotSize = size;
+        this.journal.delete();
+    }
+}
@@ -0,0 +1,107 @@
+package org.teacon.areacontrol.impl.persistence;
+
+import com.google.common.io.MoreFiles;
+import org.teacon.areacontrol.api.Area;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loading of claim files, i.e. one {@code claim-<uuid>} file per area, shared by the text-based repositories.
+ */
+final class ClaimFiles {
+
+    interface Parser {
+        Area parse(Path file, String fileName) throws Exception;
+    }
+
+    /**
+     * Parse all claim files with the given extension in the given directory.
+     * <p>
+     * With more than one thread, files are parsed on a pool of at most that many threads, which is
+     * discarded afterwards. The result, as well as the order of suppressed exceptions in case of
+     * failure, does not depend on the number of threads.
+     *
+     * @param threads Number of threads to parse files on; 1 means parsing on the calling thread
+     * @return All parsed areas, sorted by UUID
+     * @throws IOException If any file failed to parse, with the exception of each file suppressed
+     */
+    static TreeMap<UUID, Area> load(Path dir, String extension, int threads, Parser parser) throws IOException {
+        var files = new ArrayList<Path>();
+        // noinspection UnstableApiUsage
+        for (Path file : MoreFiles.listFiles(dir)) {
+            var fileName = file.getFileName().toString();
+            if (fileName.startsWith("claim-") && fileName.endsWith(extension)) {
+                files.add(file);
+            }
+        }
+        var areas = new TreeMap<UUID, Area>();
+        @Nullable var exception = (IOException) null;
+        if (threads <= 1 || files.size() <= 1) {
+            for (Path file : files) {
+                try {
+                    var area = parser.parse(file, file.getFileName().toString());
+                    areas.put(area.uid, area);
+                } catch (Exception e) {
+                    exception = addFailure(exception, e);
+                }
+            }
+        } else {
+            var pool = Executors.newFixedThreadPool(Math.min(threads, files.size()), r -> {
+                var thread = new Thread(r, "AreaControl Loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                var results = new ArrayList<Future<Area>>(files.size());
+                for (Path file : files) {
+                    results.add(pool.submit(() -> parser.parse(file, file.getFileName().toString())));
+                }
+                // Collect in the order of submission, so that duplicated UUIDs and failures are
+                // handled exactly as if the files were parsed one by one.
+                for (var result : results) {
+                    try {
+                        var area = result.get();
+                        areas.put(area.uid, area);
+                    } catch (ExecutionException e) {
+                        exception = addFailure(exception, e.getCause());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while loading claim files", e);
+                    }
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+        return areas;
+    }
+
+    private static IOException addFailure(@Nullable IOException exception, Throwable failure) {
+        if (exception == null) {
+            exception = new IOException("Failed to load one or more claim file(s)");
+        }
+        exception.addSuppressed(failure);
+        return exception;
+    }
+
+    /**
+     * @return The default number of threads used for loading claim files
+     */
+    static int defaultThreads() {
+        return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 8));
+    }
+
+    private ClaimFiles() {}
+}
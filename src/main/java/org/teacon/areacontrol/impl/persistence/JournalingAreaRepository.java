@@ -0,0 +1,283 @@
+package org.teacon.areacontrol.impl.persistence;
+
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.teacon.areacontrol.api.Area;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Decorator of another {@link AreaRepository}, which makes every save and removal durable by
+ * appending it to an {@link AreaJournal} first.
+ * <p>
+ * Changes are passed on to the decorated repository later in background, in a checkpoint. When
+ * a checkpoint begins, the current journal is set aside and a new one is started; the old one is
+ * deleted once the decorated repository has received all changes in it. Upon loading, both
+ * journals are replayed on top of whatever the decorated repository has.
+ */
+public class JournalingAreaRepository implements AreaRepository {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("AreaControl");
+
+    /**
+     * Size of the journal that triggers a checkpoint.
+     */
+    private static final long CHECKPOINT_SIZE = 1024 * 1024;
+
+    private final AreaRepository base;
+    private final Path journalFile, checkpointFile;
+    private final AreaJournal journal;
+
+    /**
+     * Changes not yet passed to {@link #base}, in the order they were made. A null value means the area was removed.
+     */
+    private final Map<UUID, Area> pending = new LinkedHashMap<>();
+    private final ExecutorService checkpointer;
+    private Future<?> checkpoint = null;
+
+    public JournalingAreaRepository(AreaRepository base, Path dataDirRoot) {
+        this.base = base;
+        this.journalFile = dataDirRoot.resolve("claims.wal");
+        this.journal = new AreaJournal(this.journalFile);
+        this.checkpointFile = dataDirRoot.resolve("claims.wal.checkpoint");
+        this.checkpointer = Executors.newSingleThreadExecutor(r -> {
+            var thread = new Thread(r, "AreaControl Checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Collection<Area> load() throws Exception {
+        var areas = new LinkedHashMap<UUID, Area>();
+        for (var area : this.base.load()) {
+            areas.put(area.uid, area);
+        }
+        synchronized (this) {
+            this.pending.clear();
+            AreaJournal.Handler replay = (op, payload) -> {
+                if (op == AreaJournal.OP_SAVE) {
+                    var area = BinaryAreaCodec.decode(payload.duplicate());
+                    areas.put(area.uid, area);
+                    this.pending.put(area.uid, BinaryAreaCodec.decode(payload));
+                } else {
+                    var uid = AreaJournal.readRemoveRecord(payload);
+                    areas.remove(uid);
+                    this.pending.put(uid, null);
+                }
+            };
+            // Left over from an interrupted checkpoint; older than anything in the current journal.
+            new AreaJournal(this.checkpointFile).replay(replay);
+            this.journal.replay(replay);
+            if (Files.exists(this.checkpointFile)) {
+                try {
+                    this.foldCheckpoint();
+                } catch (IOException e) {
+                    LOGGER.warn("Failed to merge left-over checkpoint of claims data into journal, will retry upon next load.", e);
+                }
+            }
+        }
+        if (!this.pending.isEmpty()) {
+            LOGGER.info("Recovered {} change(s) of claims data from journal.", this.pending.size());
+            synchronized (this) {
+                try {
+                    this.apply(this.pending);
+                    this.pending.clear();
+                    this.journal.delete();
+                    Files.deleteIfExists(this.checkpointFile);
+                } catch (Exception e) {
+                    // Everything is still in the journals, and what we return is correct anyway
+                    LOGGER.warn("Failed to checkpoint recovered claims data, will retry later.", e);
+                }
+            }
+        }
+        return new ArrayList<>(areas.values());
+    }
+
+    @Override
+    public void remove(Area areaToRemove) throws Exception {
+        var records = new ByteArrayOutputStream();
+        AreaJournal.writeRemoveRecord(records, areaToRemove);
+        synchronized (this) {
+            // Writing within the lock, so that the journal has the same order as the pending changes
+            this.journal.append(records.toByteArray());
+            this.pending.put(areaToRemove.uid, null);
+        }
+        this.checkpointIfNeeded();
+    }
+
+    @Override
+    public void save(Collection<Area> areas) throws Exception {
+        if (areas.isEmpty()) {
+            return;
+        }
+        var records = new ByteArrayOutputStream();
+        var copies = new ArrayList<Area>(areas.size());
+        for (Area area : areas) {
+            var record = BinaryAreaCodec.encode(area);
+            AreaJournal.writeSaveRecord(records, record);
+            // Decoding gives us a copy that cannot be changed by anyone else before the checkpoint
+            copies.add(BinaryAreaCodec.decode(ByteBuffer.wrap(record)));
+        }
+        synchronized (this) {
+            this.journal.append(records.toByteArray());
+            for (var copy : copies) {
+                this.pending.put(copy.uid, copy);
+            }
+        }
+        this.checkpointIfNeeded();
+    }
+
+    @Override
+    public boolean needsMigration(Area area) {
+        return this.base.needsMigration(area);
+    }
+
+    @Override
+    public boolean isIncremental() {
+        return true;
+    }
+
+    @Override
+    public void close() throws Exception {
+        var running = this.checkpoint;
+        if (running != null) {
+            running.get();
+        }
+        this.startCheckpoint().get();
+        this.checkpointer.shutdown();
+        this.journal.close();
+        this.base.close();
+    }
+
+    private void checkpointIfNeeded() {
+        if (this.journal.size() > CHECKPOINT_SIZE) {
+            this.startCheckpoint();
+        }
+    }
+
+    /**
+     * Set aside the current journal, and pass all pending changes to {@link #base} in background.
+     * If a checkpoint is already running, it is not interrupted; the returned future then completes
+     * with that checkpoint, and the changes made since will be handled by a later checkpoint.
+     */
+    private synchronized Future<?> startCheckpoint() {
+        if (this.checkpoint != null && !this.checkpoint.isDone()) {
+            return this.checkpoint;
+        }
+        if (this.pending.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (Files.exists(this.checkpointFile)) {
+            // Left over from a checkpoint that could neither be put back into the journal now, nor upon
+            // loading. Never overwrite it; it will be replayed and cleaned up upon next load.
+            return CompletableFuture.completedFuture(null);
+        }
+        var changes = new LinkedHashMap<>(this.pending);
+        this.pending.clear();
+        try {
+            this.journal.moveTo(this.checkpointFile);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to start checkpoint of claims data, will retry later.", e);
+            this.pending.putAll(changes);
+            return CompletableFuture.completedFuture(null);
+        }
+        return this.checkpoint = this.checkpointer.submit(() -> this.runCheckpoint(changes));
+    }
+
+    private void runCheckpoint(Map<UUID, Area> changes) {
+        try {
+            this.apply(changes);
+            Files.deleteIfExists(this.checkpointFile);
+        } catch (Exception e) {
+            LOGGER.warn("Failed to checkpoint claims data, will retry later.", e);
+            this.requeue(changes);
+        }
+    }
+
+    private void apply(Map<UUID, Area> changes) throws Exception {
+        var saved = new ArrayList<Area>();
+        for (var entry : changes.entrySet()) {
+            if (entry.getValue() != null) {
+                saved.add(entry.getValue());
+            } else {
+                var removed = new Area();
+                removed.uid = entry.getKey();
+                this.base.remove(removed);
+            }
+        }
+        this.base.save(saved);
+    }
+
+    /**
+     * Replace the current journal with one holding all pending changes, i.e. everything from both
+     * journals, then delete the left-over checkpoint file, which would otherwise block all later
+     * checkpoints. If we crash in between, replaying both files still gives the same result.
+     */
+    private void foldCheckpoint() throws IOException {
+        var merged = new AreaJournal(this.checkpointFile.resolveSibling("claims.wal.tmp"));
+        merged.delete();
+        if (this.pending.isEmpty()) {
+            this.journal.delete();
+        } else {
+            var records = new ByteArrayOutputStream();
+            for (var entry : this.pending.entrySet()) {
+                writeRecord(records, entry.getKey(), entry.getValue());
+            }
+            merged.append(records.toByteArray());
+            merged.moveTo(this.journalFile);
+            // Pick up the size of the new journal, so that it is appended to rather than started over.
+            this.journal.replay((op, payload) -> {});
+        }
+        Files.deleteIfExists(this.checkpointFile);
+    }
+
+    private static void writeRecord(ByteArrayOutputStream records, UUID uid, @Nullable Area area) throws IOException {
+        if (area != null) {
+            AreaJournal.writeSaveRecord(records, BinaryAreaCodec.encode(area));
+        } else {
+            var removed = new Area();
+            removed.uid = uid;
+            AreaJournal.writeRemoveRecord(records, removed);
+        }
+    }
+
+    /**
+     * Put back changes from a failed checkpoint into the current journal, unless they have been superseded since.
+     */
+    private void requeue(Map<UUID, Area> changes) {
+        try {
+            var records = new ByteArrayOutputStream();
+            synchronized (this) {
+                for (var entry : changes.entrySet()) {
+                    if (this.pending.containsKey(entry.getKey())) {
+                        continue;
+                    }
+                    writeRecord(records, entry.getKey(), entry.getValue());
+                    this.pending.put(entry.getKey(), entry.getValue());
+                }
+                if (records.size() > 0) {
+                    this.journal.append(records.toByteArray());
+                }
+            }
+            Files.deleteIfExists(this.checkpointFile);
+        } catch (Exception e) {
+            // The checkpoint file stays, and will be replayed upon next load.
+            LOGGER.error("Failed to put back claims data into journal.", e);
+        }
+    }
+}
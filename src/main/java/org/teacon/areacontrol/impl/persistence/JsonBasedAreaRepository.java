@@ -1,7 +1,6 @@
 package org.teacon.areacontrol.impl.persistence;
 
 import com.google.common.base.Preconditions;
-import com.google.common.io.MoreFiles;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import org.teacon.areacontrol.api.Area;
@@ -12,55 +11,66 @@ import java.io.Reader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
-import java.util.TreeMap;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 
 public class JsonBasedAreaRepository implements AreaRepository {
 
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
     private final Path dataDirRoot;
+    private final int loadingThreads;
+    /**
+     * UIDs of areas read from the legacy claims.json upon last load, which do not have their own claim file yet.
+     */
+    private final Set<UUID> legacyAreas = new HashSet<>();
 
     public JsonBasedAreaRepository(Path dataDirRoot) {
+        this(dataDirRoot, ClaimFiles.defaultThreads());
+    }
+
+    /**
+     * @param loadingThreads Number of threads used for parsing claim files upon loading
+     */
+    public JsonBasedAreaRepository(Path dataDirRoot, int loadingThreads) {
         this.dataDirRoot = dataDirRoot;
+        this.loadingThreads = loadingThreads;
     }
 
     @Override
     public Collection<Area> load() throws Exception {
-        var areas = new TreeMap<UUID, Area>();
-        @Nullable var exception = (IOException) null;
-        // noinspection UnstableApiUsage
-        for (Path file : MoreFiles.listFiles(this.dataDirRoot)) {
-            var fileName = file.getFileName().toString();
-            if (fileName.startsWith("claim-") && fileName.endsWith(".json")) {
-                try (Reader reader = Files.newBufferedReader(file)) {
-                    var model = GSON.fromJson(reader, Area.class);
-                    Preconditions.checkArgument("claim-%s.json".formatted(model.uid).equals(fileName),
-                            "The name of the claim file (" + fileName + ") does not match the claim uid: " + model.uid);
-                    areas.put(model.uid, model);
-                } catch (Exception e) {
-                    if (exception == null) {
-                        exception = new IOException("Failed to load one or more claim file(s)");
-                    }
-                    exception.addSuppressed(e);
-                }
+        var areas = ClaimFiles.load(this.dataDirRoot, ".json", this.loadingThreads, (file, fileName) -> {
+            try (Reader reader = Files.newBufferedReader(file)) {
+                var model = GSON.fromJson(reader, Area.class);
+                Preconditions.checkArgument("claim-%s.json".formatted(model.uid).equals(fileName),
+                        "The name of the claim file (" + fileName + ") does not match the claim uid: " + model.uid);
+                return model;
             }
-        }
-        if (exception != null) {
-            throw exception;
-        }
+        });
         var ret = new ArrayList<>(areas.values());
         // Check for presence of legacy data for auto-migration
+        this.legacyAreas.clear();
         Path legacyAreas = dataDirRoot.resolve("claims.json");
         if (Files.isRegularFile(legacyAreas)) {
             try (Reader reader = Files.newBufferedReader(legacyAreas)) {
-                ret.addAll(Arrays.asList(GSON.fromJson(reader, Area[].class)));
+                for (var legacy : GSON.fromJson(reader, Area[].class)) {
+                    // Areas that already have their own claim file have been migrated before
+                    if (!areas.containsKey(legacy.uid)) {
+                        ret.add(legacy);
+                        this.legacyAreas.add(legacy.uid);
+                    }
+                }
             }
         }
         return ret;
     }
 
+    @Override
+    public boolean needsMigration(Area area) {
+        return this.legacyAreas.contains(area.uid);
+    }
+
     @Override
     public void remove(Area areaToRemove) throws Exception {
         Files.deleteIfExists(this.dataDirRoot.resolve("claim-%s.json".formatted(areaToRemove.uid)));
@@ -9,7 +9,6 @@ import com.electronwill.nightconfig.core.conversion.SpecNotNull;
 import com.electronwill.nightconfig.core.file.FileConfig;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
-import com.google.common.io.MoreFiles;
 import it.unimi.dsi.fastutil.objects.ObjectArraySet;
 import net.minecraft.core.BlockPos;
 import org.teacon.areacontrol.api.Area;
@@ -23,37 +22,32 @@ import java.util.*;
 public class TomlBasedAreaRepository implements AreaRepository {
 
     private final Path dataDirRoot;
+    private final int loadingThreads;
 
     public TomlBasedAreaRepository(Path dataDirRoot) {
+        this(dataDirRoot, ClaimFiles.defaultThreads());
+    }
+
+    /**
+     * @param loadingThreads Number of threads used for parsing claim files upon loading
+     */
+    public TomlBasedAreaRepository(Path dataDirRoot, int loadingThreads) {
         this.dataDirRoot = dataDirRoot;
+        this.loadingThreads = loadingThreads;
     }
 
     @Override
     public Collection<Area> load() throws Exception {
-        var areas = new TreeMap<UUID, Area>();
-        @Nullable var exception = (IOException) null;
-        // noinspection UnstableApiUsage
-        for (Path file : MoreFiles.listFiles(this.dataDirRoot)) {
-            var fileName = file.getFileName().toString();
-            if (fileName.startsWith("claim-") && fileName.endsWith(".toml")) {
-                try (FileConfig areasData = FileConfig.of(file)) {
-                    areasData.load();
-                    var converter = new ObjectConverter();
-                    var model = converter.toObject(areasData, AreaModel::new);
-                    Preconditions.checkArgument("claim-%s.toml".formatted(model.uid).equals(fileName),
-                            "The name of the claim file (" + fileName + ") does not match the claim uid: " + model.uid);
-                    areas.put(model.uid, model.toRealArea());
-                } catch (Exception e) {
-                    if (exception == null) {
-                        exception = new IOException("Failed to load one or more claim file(s)");
-                    }
-                    exception.addSuppressed(e);
-                }
+        var areas = ClaimFiles.load(this.dataDirRoot, ".toml", this.loadingThreads, (file, fileName) -> {
+            try (FileConfig areasData = FileConfig.of(file)) {
+                areasData.load();
+                var converter = new ObjectConverter();
+                var model = converter.toObject(areasData, AreaModel::new);
+                Preconditions.checkArgument("claim-%s.toml".formatted(model.uid).equals(fileName),
+                        "The name of the claim file (" + fileName + ") does not match the claim uid: " + model.uid);
+                return model.toRealArea();
             }
-        }
-        if (exception != null) {
-            throw exception;
-        }
+        });
         return Collections.unmodifiableCollection(areas.values());
     }
 
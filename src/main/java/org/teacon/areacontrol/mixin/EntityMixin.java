@@ -51,7 +51,10 @@ public abstract class EntityMixin {
     @Inject(method = "isInvulnerableTo", at = @At("TAIL"), cancellable = true)
     private void damageSrcCheck(DamageSource src, CallbackInfoReturnable<Boolean> cir) {
         if (!src.is(DamageTypeTags.BYPASSES_INVULNERABILITY) && !cir.getReturnValueZ() && !this.level.isClientSide()) {
-            var area = AreaManager.INSTANCE.findBy(this.level, this.blockPosition());
+            var pos = this.blockPosition();
+            var dim = this.level.dimension();
+            // Still go through the checks for wildness below, as bypass mode also applies to wildness.
+            var area = AreaManager.INSTANCE.isInUnclaimedChunk(dim, pos) ? null : AreaManager.INSTANCE.findBy(dim, pos);
             boolean allow;
             Component deniedFeedback;
             var damageSrc = src.getEntity();
@@ -59,8 +62,7 @@ public abstract class EntityMixin {
                 allow = AreaChecks.checkPropFor(area, damageSrc, AreaProperties.ALLOW_PVP, null, AreaControlConfig.allowPvP);
                 deniedFeedback = Component.translatable("area_control.notice.pvp_disabled", ObjectArrays.EMPTY_ARRAY);
             } else {
-                var entityTypeRegName = ForgeRegistries.ENTITY_TYPES.getKey(this.getType());
-                allow = AreaChecks.checkPropFor(area, damageSrc, AreaProperties.ALLOW_PVE, entityTypeRegName, AreaControlConfig.allowPvE);
+                allow = AreaChecks.checkPropFor(area, damageSrc, AreaProperties.ALLOW_PVE, this.getType(), ForgeRegistries.ENTITY_TYPES, AreaControlConfig.allowPvE);
                 deniedFeedback = Component.translatable("area_control.notice.pve_disabled", ObjectArrays.EMPTY_ARRAY);
             }
             if (!allow) {
@@ -26,17 +26,9 @@ public abstract class EntitySelectorMixin {
     @Inject(method = "findEntities", at = @At("HEAD"), cancellable = true)
     private void checkArea(CommandSourceStack sourceStack, CallbackInfoReturnable<List<? extends Entity>> cir) {
         var original = this.findEntitiesRaw(sourceStack);
-        var itr = original.iterator();
-        int removedDueToACtrl = 0;
-        while (itr.hasNext()) {
-            var e = itr.next();
-            if (!e.getType().isEnabled(sourceStack.enabledFeatures())) {
-                itr.remove();
-            } else if (!AreaEntitySelectorChecker.check(sourceStack, e)) {
-                itr.remove();
-                removedDueToACtrl++;
-            }
-        }
+        original.removeIf(e -> !e.getType().isEnabled(sourceStack.enabledFeatures()));
+        // Checked in bulk, as selectors like @e may return thousands of entities at once.
+        int removedDueToACtrl = AreaEntitySelectorChecker.filter(sourceStack, original);
         if (removedDueToACtrl > 0) {
             final String formattedCount = Integer.toString(removedDueToACtrl);
             sourceStack.sendSuccess(() -> Component.translatable("area_control.notice.selector_filtered", formattedCount), true);
@@ -28,6 +28,9 @@ public class FireMixin {
      */
     @Redirect(method = "tick", at = @At(value = "INVOKE", target = "Lnet/minecraft/world/level/GameRules;getBoolean(Lnet/minecraft/world/level/GameRules$Key;)Z"))
     private boolean fireSpreadCheck(GameRules instance, GameRules.Key<GameRules.BooleanValue> pKey, BlockState pState, ServerLevel pLevel, BlockPos pPos) {
+        if (AreaManager.INSTANCE.isInUnclaimedChunk(pLevel.dimension(), pPos)) {
+            return instance.getBoolean(pKey);
+        }
         Area area = AreaManager.INSTANCE.findBy(pLevel, pPos);
         Optional<Boolean> allowFireSpread = AreaProperties.getBoolOptional(area, AreaProperties.ALLOW_FIRE_SPREAD);
         return allowFireSpread.orElseGet(() -> pLevel.getGameRules().getBoolean(GameRules.RULE_DOFIRETICK));
@@ -0,0 +1,33 @@
+package org.teacon.areacontrol.mixin;
+
+import net.minecraft.server.ServerScoreboard;
+import net.minecraft.world.scores.PlayerTeam;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+import org.teacon.areacontrol.impl.CachingGroupProvider;
+
+/**
+ * Scoreboard teams are the groups of {@link org.teacon.areacontrol.impl.VanillaScoreboardTeamGroupProvider},
+ * but vanilla does not fire any event when they change, so we have to catch those changes here.
+ */
+@Mixin(ServerScoreboard.class)
+public abstract class ServerScoreboardMixin {
+
+    @Inject(method = "addPlayerToTeam", at = @At("TAIL"))
+    private void onJoinTeam(String playerName, PlayerTeam team, CallbackInfoReturnable<Boolean> cir) {
+        CachingGroupProvider.invalidateAll();
+    }
+
+    @Inject(method = "removePlayerFromTeam", at = @At("TAIL"))
+    private void onLeaveTeam(String playerName, PlayerTeam team, CallbackInfo ci) {
+        CachingGroupProvider.invalidateAll();
+    }
+
+    @Inject(method = "onTeamRemoved", at = @At("TAIL"))
+    private void onTeamRemoved(PlayerTeam team, CallbackInfo ci) {
+        CachingGroupProvider.invalidateAll();
+    }
+}
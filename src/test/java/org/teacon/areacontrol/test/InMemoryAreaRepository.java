@@ -15,17 +15,21 @@ public class InMemoryAreaRepository implements AreaRepository {
     }
 
     @Override
-    public Collection<Area> load() {
+    public synchronized Collection<Area> load() {
         return List.copyOf(this.areas);
     }
 
     @Override
-    public void remove(Area areaToRemove) {
-        this.areas.remove(areaToRemove);
+    public synchronized void remove(Area areaToRemove) {
+        this.areas.removeIf(area -> area.uid.equals(areaToRemove.uid));
     }
 
     @Override
-    public void save(Collection<Area> areas) {
-        // No-op, this is in-memory
+    public synchronized void save(Collection<Area> areas) {
+        // Replace what we have of each area, as a file-based repository would do
+        for (var area : areas) {
+            this.remove(area);
+            this.areas.add(area);
+        }
     }
 }
@@ -0,0 +1,210 @@
+package org.teacon.areacontrol.test.impl;
+
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.teacon.areacontrol.api.Area;
+import org.teacon.areacontrol.api.AreaControlAPI;
+import org.teacon.areacontrol.api.AreaLookup;
+import org.teacon.areacontrol.api.AreaProperties;
+import org.teacon.areacontrol.impl.index.AreaHierarchy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+public class AreaHierarchyTest {
+
+    private static final String PROPERTY = AreaProperties.ALLOW_ENTITY_USE_SELECTOR_FROM_CHILD;
+
+    /**
+     * All areas of the current test, so that effective properties can be resolved through parents.
+     */
+    private final Map<UUID, Area> areas = new HashMap<>();
+    private AreaLookup previousLookup;
+
+    @BeforeEach
+    public void setup() {
+        this.previousLookup = AreaControlAPI.areaLookup;
+        AreaControlAPI.areaLookup = new AreaLookup() {
+            @Override
+            public @Nullable Area findBy(UUID areaUid) {
+                return AreaHierarchyTest.this.areas.get(areaUid);
+            }
+
+            @Override
+            public @Nullable Area findBy(String dimKey, double x, double y, double z) {
+                return null;
+            }
+
+            @Override
+            public @Nullable Area findBy(String dimKey, int x, int y, int z) {
+                return null;
+            }
+        };
+        AreaProperties.invalidateEffectiveProperties();
+    }
+
+    @AfterEach
+    public void teardown() {
+        AreaControlAPI.areaLookup = this.previousLookup;
+        AreaProperties.invalidateEffectiveProperties();
+    }
+
+    @Test
+    public void testCommonAncestor() {
+        var root = this.createArea("Root", null);
+        var a = this.createArea("A", root);
+        var b = this.createArea("B", root);
+        var a1 = this.createArea("A1", a);
+        var a1a = this.createArea("A1a", a1);
+        var other = this.createArea("Other", null);
+        var hierarchy = this.build();
+        int rootNode = hierarchy.nodeOf(root), aNode = hierarchy.nodeOf(a), bNode = hierarchy.nodeOf(b);
+        int a1aNode = hierarchy.nodeOf(a1a), otherNode = hierarchy.nodeOf(other);
+        // Unequal depths, in both orders
+        Assertions.assertEquals(rootNode, hierarchy.commonAncestorOf(a1aNode, bNode));
+        Assertions.assertEquals(rootNode, hierarchy.commonAncestorOf(bNode, a1aNode));
+        Assertions.assertEquals(aNode, hierarchy.commonAncestorOf(a1aNode, aNode));
+        Assertions.assertEquals(aNode, hierarchy.commonAncestorOf(aNode, a1aNode));
+        Assertions.assertEquals(rootNode, hierarchy.commonAncestorOf(a1aNode, rootNode));
+        // Siblings and the same node
+        Assertions.assertEquals(rootNode, hierarchy.commonAncestorOf(aNode, bNode));
+        Assertions.assertEquals(a1aNode, hierarchy.commonAncestorOf(a1aNode, a1aNode));
+        // Different top-level areas only meet at the wildness
+        Assertions.assertEquals(-1, hierarchy.commonAncestorOf(a1aNode, otherNode));
+        Assertions.assertEquals(-1, hierarchy.commonAncestorOf(rootNode, otherNode));
+        // Wildness is the ancestor of all
+        Assertions.assertEquals(-1, hierarchy.commonAncestorOf(-1, a1aNode));
+        Assertions.assertEquals(-1, hierarchy.commonAncestorOf(a1aNode, -1));
+        Assertions.assertEquals(-1, hierarchy.commonAncestorOf(-1, -1));
+        Assertions.assertEquals(-1, hierarchy.nodeOf(null));
+        Assertions.assertEquals(-2, hierarchy.nodeOf(new Area()));
+    }
+
+    @Test
+    public void testCommonAncestorAgainstBruteForce() {
+        var random = new Random(42L);
+        var created = new ArrayList<Area>();
+        for (int i = 0; i < 500; i++) {
+            // Parents are picked mostly among recent areas, so that some paths get deep
+            var parent = created.isEmpty() || random.nextInt(20) == 0 ? null : created.get(Math.max(0, created.size() - 1 - random.nextInt(10)));
+            created.add(this.createArea("A" + i, parent));
+        }
+        var hierarchy = this.build();
+        for (int i = 0; i < 5000; i++) {
+            var a = created.get(random.nextInt(created.size()));
+            var b = created.get(random.nextInt(created.size()));
+            var expected = this.commonAncestorByWalking(a, b);
+            Assertions.assertEquals(hierarchy.nodeOf(expected), hierarchy.commonAncestorOf(hierarchy.nodeOf(a), hierarchy.nodeOf(b)));
+        }
+    }
+
+    @Test
+    public void testAllowsAlongPathToWildnessAgainstWalking() {
+        var random = new Random(7L);
+        var created = new ArrayList<Area>();
+        for (int i = 0; i < 300; i++) {
+            var parent = created.isEmpty() || random.nextInt(10) == 0 ? null : created.get(random.nextInt(created.size()));
+            var area = this.createArea("A" + i, parent);
+            switch (random.nextInt(4)) {
+                case 0 -> area.properties.put(PROPERTY, false);
+                case 1 -> area.properties.put(PROPERTY, true);
+                default -> {}
+            }
+            created.add(area);
+        }
+        var hierarchy = this.build();
+        for (var area : created) {
+            for (var fallback : new boolean[] { true, false }) {
+                var expected = this.allowsByWalking(area, null, fallback);
+                Assertions.assertEquals(expected, hierarchy.allowsAlongPath(hierarchy.nodeOf(area), -1, PROPERTY, fallback),
+                        "Mismatch for " + area.name + " with fallback " + fallback);
+            }
+            // Stopping below some ancestor only looks at the areas in between
+            var ancestor = this.areas.get(area.belongingArea);
+            if (ancestor != null) {
+                var expected = this.allowsByWalking(area, ancestor, false);
+                Assertions.assertEquals(expected, hierarchy.allowsAlongPath(hierarchy.nodeOf(area), hierarchy.nodeOf(ancestor), PROPERTY, false));
+            }
+        }
+        Assertions.assertTrue(hierarchy.allowsAlongPath(-1, -1, PROPERTY, false), "Nothing to check from the wildness");
+    }
+
+    @Test
+    public void testCycleIsCutLoose() {
+        var root = this.createArea("Root", null);
+        var child = this.createArea("Child", root);
+        var x = this.createArea("X", null);
+        var y = this.createArea("Y", x);
+        var belowCycle = this.createArea("Below cycle", y);
+        // Close the cycle, which a consistent hierarchy never has
+        x.belongingArea = y.uid;
+        x.properties.put(PROPERTY, false);
+        y.properties.put(PROPERTY, true);
+        var hierarchy = new AreaHierarchy(0L, 0L, List.copyOf(this.areas.values()), List.of(PROPERTY));
+        int xNode = hierarchy.nodeOf(x), yNode = hierarchy.nodeOf(y), belowNode = hierarchy.nodeOf(belowCycle);
+        // Everything in or below the cycle becomes top-level
+        Assertions.assertEquals(-1, hierarchy.parentOf(xNode));
+        Assertions.assertEquals(-1, hierarchy.parentOf(yNode));
+        Assertions.assertEquals(-1, hierarchy.parentOf(belowNode));
+        Assertions.assertEquals(-1, hierarchy.commonAncestorOf(xNode, yNode));
+        Assertions.assertEquals(-1, hierarchy.commonAncestorOf(belowNode, yNode));
+        Assertions.assertEquals(belowNode, hierarchy.commonAncestorOf(belowNode, belowNode));
+        // and no longer inherits anything along the cut links
+        Assertions.assertFalse(hierarchy.allowsAlongPath(xNode, -1, PROPERTY, true));
+        Assertions.assertTrue(hierarchy.allowsAlongPath(yNode, -1, PROPERTY, false));
+        Assertions.assertTrue(hierarchy.allowsAlongPath(belowNode, -1, PROPERTY, true));
+        Assertions.assertFalse(hierarchy.allowsAlongPath(belowNode, -1, PROPERTY, false));
+        // The rest of the hierarchy is left as is
+        Assertions.assertEquals(hierarchy.nodeOf(root), hierarchy.parentOf(hierarchy.nodeOf(child)));
+        Assertions.assertEquals(hierarchy.nodeOf(root), hierarchy.commonAncestorOf(hierarchy.nodeOf(child), hierarchy.nodeOf(root)));
+    }
+
+    private AreaHierarchy build() {
+        // Children may come before their parents
+        var all = new ArrayList<>(this.areas.values());
+        Collections.shuffle(all, new Random(1L));
+        return new AreaHierarchy(0L, 0L, all, List.of(PROPERTY));
+    }
+
+    private @Nullable Area commonAncestorByWalking(Area a, Area b) {
+        var ancestorsOfA = new ArrayList<Area>();
+        for (var current = a; current != null; current = this.areas.get(current.belongingArea)) {
+            ancestorsOfA.add(current);
+        }
+        for (var current = b; current != null; current = this.areas.get(current.belongingArea)) {
+            if (ancestorsOfA.contains(current)) {
+                return current;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Same walk as step 1 of {@code AreaEntitySelectorChecker.checkByWalking}: every area from the given
+     * one up to, but excluding, the given ancestor must allow, or leave it to the fallback.
+     */
+    private boolean allowsByWalking(Area from, @Nullable Area to, boolean fallback) {
+        for (var current = from; current != to; current = this.areas.get(current.belongingArea)) {
+            if (!AreaProperties.getBoolOptional(current, PROPERTY).orElse(fallback)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Area createArea(String name, @Nullable Area parent) {
+        var area = new Area();
+        area.name = name;
+        area.belongingArea = parent == null ? null : parent.uid;
+        this.areas.put(area.uid, area);
+        return area;
+    }
+}
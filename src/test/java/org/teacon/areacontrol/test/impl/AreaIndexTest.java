@@ -0,0 +1,136 @@
+package org.teacon.areacontrol.test.impl;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.teacon.areacontrol.api.Area;
+import org.teacon.areacontrol.impl.index.AreaIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class AreaIndexTest {
+
+    private static final ResourceKey<Level> DIM = Level.OVERWORLD;
+
+    @Test
+    public void testPublishLeavesBaseSnapshotUntouched() {
+        var a = createArea("A", 0, 0, 0, 15, 15, 15);
+        var first = AreaIndex.EMPTY.edit().add(DIM, a).publish();
+        var second = first.edit().remove(DIM, a).publish();
+        Assertions.assertTrue(second.version > first.version);
+        Assertions.assertArrayEquals(new Area[] { a }, first.areasAt(DIM, 0, 0));
+        Assertions.assertEquals(0, second.areasAt(DIM, 0, 0).length);
+        Assertions.assertFalse(second.isOccupied(DIM, 0, 0));
+        Assertions.assertEquals(0, AreaIndex.EMPTY.areasAt(DIM, 0, 0).length);
+    }
+
+    @Test
+    public void testInnermostAreaComesFirst() {
+        var outer = createArea("Outer", -100, 0, -100, 100, 100, 100);
+        var inner = createArea("Inner", 0, 0, 0, 10, 10, 10);
+        inner.depth = 1;
+        // Added in the "wrong" order on purpose
+        var index = AreaIndex.EMPTY.edit().add(DIM, outer).add(DIM, inner).publish();
+        Assertions.assertArrayEquals(new Area[] { inner, outer }, index.areasAt(DIM, 0, 0));
+        Assertions.assertArrayEquals(new Area[] { outer }, index.areasAt(DIM, -1, -1));
+    }
+
+    @Test
+    public void testResizeOnlyTakesEffectUponPublish() {
+        var a = createArea("A", 0, 0, 0, 15, 15, 15);
+        var before = AreaIndex.EMPTY.edit().add(DIM, a).publish();
+        var editor = before.edit().resize(DIM, a, 0, 0, 0, 40, 15, 15);
+        Assertions.assertEquals(15, a.maxX, "Range must not change before publishing");
+        var after = editor.publish();
+        Assertions.assertEquals(40, a.maxX);
+        Assertions.assertArrayEquals(new Area[] { a }, after.areasAt(DIM, 2, 0));
+        Assertions.assertEquals(0, before.areasAt(DIM, 2, 0).length, "Old snapshot must keep the old buckets");
+        // Shrinking leaves chunks no longer covered
+        var shrunk = after.edit().resize(DIM, a, 20, 0, 0, 40, 15, 15).publish();
+        Assertions.assertEquals(20, a.minX);
+        Assertions.assertFalse(shrunk.isOccupied(DIM, 0, 0));
+        Assertions.assertArrayEquals(new Area[] { a }, shrunk.areasAt(DIM, 1, 0));
+    }
+
+    @Test
+    public void testAgainstBruteForce() {
+        var random = new Random(42L);
+        var areas = new ArrayList<Area>();
+        var index = AreaIndex.EMPTY;
+        for (int step = 0; step < 2000; step++) {
+            int op = random.nextInt(3);
+            if (op == 0 || areas.isEmpty()) {
+                int x = random.nextInt(1000) - 500, z = random.nextInt(1000) - 500;
+                var area = createArea("A" + step, x, 0, z, x + random.nextInt(100), 10, z + random.nextInt(100));
+                area.depth = random.nextInt(4);
+                areas.add(area);
+                index = index.edit().add(DIM, area).publish();
+            } else if (op == 1) {
+                index = index.edit().remove(DIM, areas.remove(random.nextInt(areas.size()))).publish();
+            } else {
+                var area = areas.get(random.nextInt(areas.size()));
+                int minX = area.minX + random.nextInt(61) - 30, minZ = area.minZ + random.nextInt(61) - 30;
+                int maxX = Math.max(minX, area.maxX + random.nextInt(61) - 30), maxZ = Math.max(minZ, area.maxZ + random.nextInt(61) - 30);
+                index = index.edit().resize(DIM, area, minX, area.minY, minZ, maxX, area.maxY, maxZ).publish();
+            }
+            for (int probe = 0; probe < 20; probe++) {
+                int chunkX = (random.nextInt(1200) - 600) >> 4, chunkZ = (random.nextInt(1200) - 600) >> 4;
+                Set<Area> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (var area : areas) {
+                    if (area.minX >> 4 <= chunkX && chunkX <= area.maxX >> 4 && area.minZ >> 4 <= chunkZ && chunkZ <= area.maxZ >> 4) {
+                        expected.add(area);
+                    }
+                }
+                var bucket = index.areasAt(DIM, chunkX, chunkZ);
+                Set<Area> actual = Collections.newSetFromMap(new IdentityHashMap<>());
+                actual.addAll(Arrays.asList(bucket));
+                Assertions.assertEquals(expected, actual, "Bucket mismatch after step " + step);
+                Assertions.assertEquals(expected.size(), bucket.length, "Duplicates in bucket after step " + step);
+                Assertions.assertEquals(!expected.isEmpty(), index.isOccupied(DIM, chunkX, chunkZ));
+                for (int i = 1; i < bucket.length; i++) {
+                    Assertions.assertTrue(bucket[i - 1].depth >= bucket[i].depth, "Bucket not ordered innermost first");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRebuildMatchesIncrementalEdits() {
+        var random = new Random(7L);
+        var areas = new ArrayList<Area>();
+        var incremental = AreaIndex.EMPTY.edit();
+        for (int i = 0; i < 300; i++) {
+            int x = random.nextInt(2000) - 1000, z = random.nextInt(2000) - 1000;
+            var area = createArea("A" + i, x, 0, z, x + random.nextInt(200), 10, z + random.nextInt(200));
+            area.depth = random.nextInt(3);
+            areas.add(area);
+            incremental.add(DIM, area);
+        }
+        var edited = incremental.publish();
+        var rebuilt = AreaIndex.EMPTY.rebuild(Map.of(DIM, areas));
+        for (int chunkX = -70; chunkX <= 80; chunkX++) {
+            for (int chunkZ = -70; chunkZ <= 80; chunkZ++) {
+                Assertions.assertArrayEquals(edited.areasAt(DIM, chunkX, chunkZ), rebuilt.areasAt(DIM, chunkX, chunkZ));
+            }
+        }
+    }
+
+    private static Area createArea(String name, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        var area = new Area();
+        area.name = name;
+        area.minX = minX;
+        area.minY = minY;
+        area.minZ = minZ;
+        area.maxX = maxX;
+        area.maxY = maxY;
+        area.maxZ = maxZ;
+        return area;
+    }
+}
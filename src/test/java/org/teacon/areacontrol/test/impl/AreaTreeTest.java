@@ -0,0 +1,208 @@
+package org.teacon.areacontrol.test.impl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.teacon.areacontrol.api.Area;
+import org.teacon.areacontrol.impl.index.AreaTree;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class AreaTreeTest {
+
+    @Test
+    public void testEmptyTree() {
+        var tree = new AreaTree();
+        Assertions.assertEquals(0, tree.size());
+        Assertions.assertTrue(tree.findIntersecting(Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE).isEmpty());
+        Assertions.assertFalse(tree.remove(new Area()));
+    }
+
+    @Test
+    public void testInsertAndRemoveAgainstBruteForce() {
+        var random = new Random(42L);
+        var tree = new AreaTree();
+        var areas = new ArrayList<Area>();
+        for (int step = 0; step < 3000; step++) {
+            // Grow first, then shrink, so that nodes split and later underflow
+            boolean grow = step < 1500 ? random.nextInt(4) != 0 : random.nextInt(4) == 0;
+            if (grow || areas.isEmpty()) {
+                var area = randomArea(random, 2000, 100);
+                areas.add(area);
+                tree.insert(area);
+            } else {
+                var area = areas.remove(random.nextInt(areas.size()));
+                Assertions.assertTrue(tree.remove(area));
+                Assertions.assertFalse(tree.remove(area));
+            }
+            Assertions.assertEquals(areas.size(), tree.size());
+            if (step % 10 == 0) {
+                assertQueriesMatch(random, tree, areas);
+            }
+        }
+    }
+
+    @Test
+    public void testRemovingAlmostEverythingCondensesTree() {
+        var random = new Random(1L);
+        var areas = new ArrayList<Area>();
+        for (int i = 0; i < 1000; i++) {
+            areas.add(randomArea(random, 5000, 50));
+        }
+        var tree = AreaTree.bulkLoad(areas);
+        Collections.shuffle(areas, random);
+        // Every removal beyond the first few takes some node below the minimum fill,
+        // so that it is dissolved and its remaining entries are inserted again.
+        while (areas.size() > 3) {
+            Assertions.assertTrue(tree.remove(areas.remove(areas.size() - 1)));
+            if (areas.size() % 50 == 0) {
+                assertQueriesMatch(random, tree, areas);
+            }
+        }
+        assertQueriesMatch(random, tree, areas);
+        for (var area : List.copyOf(areas)) {
+            Assertions.assertTrue(tree.remove(area));
+            areas.remove(area);
+        }
+        Assertions.assertEquals(0, tree.size());
+        // The tree is still usable after it has been emptied
+        var area = randomArea(random, 100, 10);
+        tree.insert(area);
+        Assertions.assertEquals(List.of(area), tree.findIntersecting(area.minX, area.minY, area.minZ, area.maxX, area.maxY, area.maxZ));
+    }
+
+    @Test
+    public void testBulkLoadMatchesIncrementalInsert() {
+        var random = new Random(7L);
+        var areas = new ArrayList<Area>();
+        for (int i = 0; i < 2000; i++) {
+            areas.add(randomArea(random, 10000, 300));
+        }
+        var bulk = AreaTree.bulkLoad(areas);
+        var incremental = new AreaTree();
+        areas.forEach(incremental::insert);
+        Assertions.assertEquals(incremental.size(), bulk.size());
+        for (int i = 0; i < 500; i++) {
+            var query = randomArea(random, 12000, 2000);
+            Assertions.assertEquals(
+                    identitySet(incremental.findIntersecting(query.minX, query.minY, query.minZ, query.maxX, query.maxY, query.maxZ)),
+                    identitySet(bulk.findIntersecting(query.minX, query.minY, query.minZ, query.maxX, query.maxY, query.maxZ)));
+        }
+        // A bulk-loaded tree accepts further changes like any other tree
+        for (int i = 0; i < 500; i++) {
+            var removed = areas.remove(random.nextInt(areas.size()));
+            Assertions.assertTrue(bulk.remove(removed));
+            var added = randomArea(random, 10000, 300);
+            areas.add(added);
+            bulk.insert(added);
+        }
+        assertQueriesMatch(random, bulk, areas);
+    }
+
+    @Test
+    public void testBulkLoadOfFewAreas() {
+        var random = new Random(3L);
+        for (int n = 0; n <= 40; n++) {
+            var areas = new ArrayList<Area>();
+            for (int i = 0; i < n; i++) {
+                areas.add(randomArea(random, 500, 50));
+            }
+            var tree = AreaTree.bulkLoad(areas);
+            Assertions.assertEquals(n, tree.size());
+            assertQueriesMatch(random, tree, areas);
+        }
+    }
+
+    @Test
+    public void testInsertAgainReplacesRange() {
+        var area = createArea(0, 0, 0, 10, 10, 10);
+        var tree = new AreaTree();
+        tree.insert(area);
+        area.minX = 100;
+        area.maxX = 110;
+        tree.insert(area);
+        Assertions.assertEquals(1, tree.size());
+        Assertions.assertTrue(tree.findIntersecting(0, 0, 0, 10, 10, 10).isEmpty());
+        Assertions.assertEquals(List.of(area), tree.findIntersecting(105, 5, 5, 105, 5, 5));
+    }
+
+    @Test
+    public void testEnclosureQueriesIncludeSameRange() {
+        var area = createArea(0, 0, 0, 10, 10, 10);
+        var tree = AreaTree.bulkLoad(List.of(area));
+        Assertions.assertEquals(List.of(area), tree.findEnclosing(0, 0, 0, 10, 10, 10));
+        Assertions.assertEquals(List.of(area), tree.findEnclosedBy(0, 0, 0, 10, 10, 10));
+        Assertions.assertTrue(tree.findEnclosing(0, 0, 0, 11, 10, 10).isEmpty());
+        Assertions.assertTrue(tree.findEnclosedBy(1, 0, 0, 10, 10, 10).isEmpty());
+    }
+
+    private static void assertQueriesMatch(Random random, AreaTree tree, Collection<Area> areas) {
+        for (int i = 0; i < 20; i++) {
+            var query = randomArea(random, 2500, 400);
+            Set<Area> intersecting = identitySet(), enclosedBy = identitySet(), enclosing = identitySet();
+            for (var area : areas) {
+                if (area.minX <= query.maxX && query.minX <= area.maxX
+                        && area.minY <= query.maxY && query.minY <= area.maxY
+                        && area.minZ <= query.maxZ && query.minZ <= area.maxZ) {
+                    intersecting.add(area);
+                }
+                if (encloses(query, area)) {
+                    enclosedBy.add(area);
+                }
+                if (encloses(area, query)) {
+                    enclosing.add(area);
+                }
+            }
+            Set<Area> visited = identitySet();
+            tree.forEachIntersecting(query.minX, query.minY, query.minZ, query.maxX, query.maxY, query.maxZ, area -> {
+                Assertions.assertTrue(visited.add(area), "Area visited twice");
+            });
+            Assertions.assertEquals(intersecting, visited);
+            Assertions.assertEquals(enclosedBy, identitySet(tree.findEnclosedBy(query.minX, query.minY, query.minZ, query.maxX, query.maxY, query.maxZ)));
+            Assertions.assertEquals(enclosing, identitySet(tree.findEnclosing(query.minX, query.minY, query.minZ, query.maxX, query.maxY, query.maxZ)));
+        }
+        // A query of a single block inside an existing area must always find it
+        for (var area : areas) {
+            if (random.nextInt(10) == 0) {
+                Assertions.assertTrue(identitySet(tree.findEnclosing(area.minX, area.minY, area.minZ, area.minX, area.minY, area.minZ)).contains(area));
+            }
+        }
+    }
+
+    private static boolean encloses(Area outer, Area inner) {
+        return outer.minX <= inner.minX && inner.maxX <= outer.maxX
+                && outer.minY <= inner.minY && inner.maxY <= outer.maxY
+                && outer.minZ <= inner.minZ && inner.maxZ <= outer.maxZ;
+    }
+
+    private static Set<Area> identitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    private static Set<Area> identitySet(Collection<Area> areas) {
+        var set = identitySet();
+        set.addAll(areas);
+        return set;
+    }
+
+    private static Area randomArea(Random random, int range, int maxSize) {
+        int x = random.nextInt(2 * range) - range, y = random.nextInt(320) - 64, z = random.nextInt(2 * range) - range;
+        return createArea(x, y, z, x + random.nextInt(maxSize), y + random.nextInt(64), z + random.nextInt(maxSize));
+    }
+
+    private static Area createArea(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        var area = new Area();
+        area.minX = minX;
+        area.minY = minY;
+        area.minZ = minZ;
+        area.maxX = maxX;
+        area.maxY = maxY;
+        area.maxZ = maxZ;
+        return area;
+    }
+}
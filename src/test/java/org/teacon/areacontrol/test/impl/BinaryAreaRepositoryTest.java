@@ -0,0 +1,257 @@
+package org.teacon.areacontrol.test.impl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.teacon.areacontrol.api.Area;
+import org.teacon.areacontrol.impl.persistence.BinaryAreaRepository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+public class BinaryAreaRepositoryTest {
+
+    @TempDir
+    Path dataDir;
+
+    /**
+     * Live areas handed to the repository for compaction, like what the area manager would have.
+     */
+    private final Map<UUID, Area> live = new HashMap<>();
+    /**
+     * How many times the repository has asked for live areas, i.e. tried to compact.
+     */
+    private int compactions = 0;
+
+    private BinaryAreaRepository open() {
+        return new BinaryAreaRepository(this.dataDir, () -> {
+            this.compactions++;
+            return List.copyOf(this.live.values());
+        });
+    }
+
+    private void save(BinaryAreaRepository repo, Area... areas) throws Exception {
+        for (var area : areas) {
+            this.live.put(area.uid, area);
+        }
+        repo.save(List.of(areas));
+    }
+
+    private void remove(BinaryAreaRepository repo, Area area) throws Exception {
+        this.live.remove(area.uid);
+        repo.remove(area);
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        var parent = createArea("Parent", 0, 0, 0, 100, 100, 100);
+        parent.owners.add(UUID.randomUUID());
+        parent.ownerGroups.add("admins");
+        parent.builders.add(UUID.randomUUID());
+        parent.builders.add(UUID.randomUUID());
+        parent.builderGroups.add("builders");
+        parent.properties.put("area.allow_break_block", false);
+        parent.properties.put("area.some_int", 42);
+        parent.properties.put("area.some_long", 1L << 40);
+        parent.properties.put("area.some_double", 0.5);
+        parent.properties.put("area.some_string", "Grüße, 世界");
+        var child = createArea("Child", Integer.MIN_VALUE, -64, 10, 20, Integer.MAX_VALUE, 30);
+        child.dimension = "minecraft:the_nether";
+        child.belongingArea = parent.uid;
+        var repo = this.open();
+        Assertions.assertTrue(repo.load().isEmpty());
+        this.save(repo, parent, child);
+        repo.close();
+
+        var loaded = byId(this.open().load());
+        Assertions.assertEquals(2, loaded.size());
+        assertSameArea(parent, loaded.get(parent.uid));
+        assertSameArea(child, loaded.get(child.uid));
+    }
+
+    @Test
+    public void testReplayAfterAppend() throws Exception {
+        var a = createArea("A", 0, 0, 0, 10, 10, 10);
+        var b = createArea("B", 20, 0, 20, 30, 10, 30);
+        var repo = this.open();
+        repo.load();
+        this.save(repo, a, b);
+        a.name = "A renamed";
+        a.maxX = 15;
+        a.properties.put("area.allow_pvp", true);
+        this.save(repo, a);
+        this.remove(repo, b);
+        // Not closed on purpose, as if the server had crashed
+
+        var loaded = this.open().load();
+        Assertions.assertEquals(1, loaded.size());
+        assertSameArea(a, loaded.iterator().next());
+    }
+
+    @Test
+    public void testTornRecordIsDiscarded() throws Exception {
+        var a = createArea("A", 0, 0, 0, 10, 10, 10);
+        var b = createArea("B", 20, 0, 20, 30, 10, 30);
+        var repo = this.open();
+        repo.load();
+        this.save(repo, a);
+        var journal = this.dataDir.resolve("claims.journal");
+        long intactSize = Files.size(journal);
+        this.save(repo, b);
+        repo.close();
+        // Cut the last record in half, as if we crashed while writing it
+        var bytes = Files.readAllBytes(journal);
+        Files.write(journal, Arrays.copyOf(bytes, (int) (intactSize + (bytes.length - intactSize) / 2)));
+
+        repo = this.open();
+        var loaded = repo.load();
+        Assertions.assertEquals(1, loaded.size());
+        assertSameArea(a, loaded.iterator().next());
+        Assertions.assertEquals(intactSize, Files.size(journal), "Torn record must be truncated");
+        // Appending after truncation gives a journal that can be replayed again
+        var c = createArea("C", 40, 0, 40, 50, 10, 50);
+        this.save(repo, c);
+        repo.close();
+        Assertions.assertEquals(Map.of(a.uid, "A", c.uid, "C"), namesOf(this.open().load()));
+    }
+
+    @Test
+    public void testCorruptedRecordIsDiscarded() throws Exception {
+        var a = createArea("A", 0, 0, 0, 10, 10, 10);
+        var b = createArea("B", 20, 0, 20, 30, 10, 30);
+        var repo = this.open();
+        repo.load();
+        this.save(repo, a);
+        var journal = this.dataDir.resolve("claims.journal");
+        long intactSize = Files.size(journal);
+        this.save(repo, b);
+        repo.close();
+        // Flip a bit in the middle of the last record, so that its checksum no longer matches
+        var bytes = Files.readAllBytes(journal);
+        bytes[(int) (intactSize + (bytes.length - intactSize) / 2)] ^= 0x10;
+        Files.write(journal, bytes);
+
+        var loaded = this.open().load();
+        Assertions.assertEquals(Map.of(a.uid, "A"), namesOf(loaded));
+        Assertions.assertEquals(intactSize, Files.size(journal));
+    }
+
+    @Test
+    public void testCompaction() throws Exception {
+        var repo = this.open();
+        repo.load();
+        var areas = new ArrayList<Area>();
+        for (int i = 0; i < 50; i++) {
+            var area = createArea("Area " + i, i * 100, 0, 0, i * 100 + 50, 10, 50);
+            areas.add(area);
+            this.save(repo, area);
+        }
+        var journal = this.dataDir.resolve("claims.journal");
+        var snapshot = this.dataDir.resolve("claims.bin");
+        Assertions.assertFalse(Files.exists(snapshot));
+        // Keep changing the same few areas until the journal is large enough to be compacted
+        for (int round = 0; round < 10000 && !Files.exists(snapshot); round++) {
+            var area = areas.get(round % 10);
+            area.properties.put("area.counter", round);
+            this.save(repo, area);
+        }
+        Assertions.assertTrue(Files.exists(snapshot), "Journal was never compacted");
+        Assertions.assertFalse(Files.exists(journal), "Journal must be emptied after compaction");
+        this.remove(repo, areas.get(0));
+        var changed = areas.get(1);
+        changed.name = "Changed after compaction";
+        this.save(repo, changed);
+        repo.close();
+
+        var loaded = byId(this.open().load());
+        Assertions.assertEquals(this.live.keySet(), loaded.keySet());
+        for (var area : this.live.values()) {
+            assertSameArea(area, loaded.get(area.uid));
+        }
+    }
+
+    @Test
+    public void testFailedCompactionIsNotRetriedOnEveryChange() throws Exception {
+        var repo = this.open();
+        repo.load();
+        var area = createArea("A", 0, 0, 0, 10, 10, 10);
+        area.properties.put("area.filler", "x".repeat(1024));
+        var journal = this.dataDir.resolve("claims.journal");
+        var snapshot = this.dataDir.resolve("claims.bin");
+        // Nothing can be written where the new snapshot is put first
+        var blocker = Files.createDirectory(this.dataDir.resolve("claims.bin.tmp"));
+        int round = 0;
+        while (this.compactions == 0 && round < 10000) {
+            area.properties.put("area.counter", round++);
+            this.save(repo, area);
+        }
+        Assertions.assertEquals(1, this.compactions, "Compaction was never attempted");
+        Assertions.assertFalse(Files.exists(snapshot));
+        long failedAt = Files.size(journal);
+        // Further changes are only appended, until the journal has grown well past its size at the failure
+        while (Files.size(journal) <= 2 * failedAt) {
+            Assertions.assertEquals(1, this.compactions, "Compaction was retried too early");
+            area.properties.put("area.counter", round++);
+            this.save(repo, area);
+        }
+        Assertions.assertEquals(2, this.compactions);
+        // Once the obstacle is gone, the next retry succeeds
+        Files.delete(blocker);
+        while (!Files.exists(snapshot) && round < 100000) {
+            area.properties.put("area.counter", round++);
+            this.save(repo, area);
+        }
+        Assertions.assertTrue(Files.exists(snapshot), "Journal was never compacted");
+        repo.close();
+        var loaded = this.open().load();
+        Assertions.assertEquals(1, loaded.size());
+        assertSameArea(area, loaded.iterator().next());
+    }
+
+    private static Map<UUID, Area> byId(Collection<Area> areas) {
+        return areas.stream().collect(Collectors.toMap(a -> a.uid, a -> a));
+    }
+
+    private static Map<UUID, String> namesOf(Collection<Area> areas) {
+        return areas.stream().collect(Collectors.toMap(a -> a.uid, a -> a.name));
+    }
+
+    static void assertSameArea(Area expected, Area actual) {
+        Assertions.assertNotNull(actual, "Area " + expected.name + " is missing");
+        Assertions.assertEquals(expected.uid, actual.uid);
+        Assertions.assertEquals(expected.name, actual.name);
+        Assertions.assertEquals(expected.dimension, actual.dimension);
+        Assertions.assertEquals(expected.owners, actual.owners);
+        Assertions.assertEquals(expected.ownerGroups, actual.ownerGroups);
+        Assertions.assertEquals(expected.builders, actual.builders);
+        Assertions.assertEquals(expected.builderGroups, actual.builderGroups);
+        Assertions.assertEquals(expected.minX, actual.minX);
+        Assertions.assertEquals(expected.minY, actual.minY);
+        Assertions.assertEquals(expected.minZ, actual.minZ);
+        Assertions.assertEquals(expected.maxX, actual.maxX);
+        Assertions.assertEquals(expected.maxY, actual.maxY);
+        Assertions.assertEquals(expected.maxZ, actual.maxZ);
+        Assertions.assertEquals(expected.belongingArea, actual.belongingArea);
+        Assertions.assertEquals(expected.properties, actual.properties);
+    }
+
+    static Area createArea(String name, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        var area = new Area();
+        area.name = name;
+        area.minX = minX;
+        area.minY = minY;
+        area.minZ = minZ;
+        area.maxX = maxX;
+        area.maxY = maxY;
+        area.maxZ = maxZ;
+        return area;
+    }
+}
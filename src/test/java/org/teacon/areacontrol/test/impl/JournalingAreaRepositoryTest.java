@@ -0,0 +1,246 @@
+package org.teacon.areacontrol.test.impl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.teacon.areacontrol.api.Area;
+import org.teacon.areacontrol.impl.persistence.JournalingAreaRepository;
+import org.teacon.areacontrol.test.InMemoryAreaRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+public class JournalingAreaRepositoryTest {
+
+    @TempDir
+    Path dataDir;
+
+    /**
+     * Large enough that a few hundred saves cross the size that triggers a checkpoint.
+     */
+    private static final String FILLER = "x".repeat(8192);
+
+    @Test
+    public void testReplayOntoDelegate() throws Exception {
+        var base = new InMemoryAreaRepository(new ArrayList<>());
+        var a = BinaryAreaRepositoryTest.createArea("A", 0, 0, 0, 10, 10, 10);
+        var b = BinaryAreaRepositoryTest.createArea("B", 20, 0, 20, 30, 10, 30);
+        var repo = new JournalingAreaRepository(base, this.dataDir);
+        repo.load();
+        repo.save(List.of(a, b));
+        repo.remove(b);
+        a.name = "A renamed";
+        a.properties.put("area.allow_pvp", false);
+        repo.save(List.of(a));
+        // Not closed on purpose, as if the server had crashed
+        Assertions.assertTrue(base.areas.isEmpty(), "Nothing should reach the delegate before a checkpoint");
+        Assertions.assertTrue(Files.exists(this.dataDir.resolve("claims.wal")));
+
+        var loaded = new JournalingAreaRepository(base, this.dataDir).load();
+        Assertions.assertEquals(1, loaded.size());
+        BinaryAreaRepositoryTest.assertSameArea(a, loaded.iterator().next());
+        // Recovered changes are passed on to the delegate right away
+        Assertions.assertEquals(1, base.areas.size());
+        BinaryAreaRepositoryTest.assertSameArea(a, base.areas.get(0));
+        Assertions.assertFalse(Files.exists(this.dataDir.resolve("claims.wal")));
+    }
+
+    @Test
+    public void testCheckpointRotationAndRecovery() throws Exception {
+        var liveDir = Files.createDirectories(this.dataDir.resolve("live"));
+        var base = new BlockingRepository();
+        var repo = new JournalingAreaRepository(base, liveDir);
+        repo.load();
+        var wal = liveDir.resolve("claims.wal");
+        var checkpoint = liveDir.resolve("claims.wal.checkpoint");
+        var areas = new ArrayList<Area>();
+        for (int i = 0; i < 10; i++) {
+            var area = BinaryAreaRepositoryTest.createArea("Area " + i, i * 100, 0, 0, i * 100 + 50, 10, 50);
+            area.properties.put("area.filler", FILLER);
+            areas.add(area);
+        }
+        for (int round = 0; round < 1000 && !Files.exists(checkpoint); round++) {
+            var area = areas.get(round % areas.size());
+            area.properties.put("area.counter", round);
+            repo.save(List.of(area));
+        }
+        // The journal has been set aside, while the delegate is still busy with the checkpoint
+        Assertions.assertTrue(Files.exists(checkpoint), "Journal was never rotated");
+        Assertions.assertFalse(Files.exists(wal));
+        Assertions.assertTrue(base.started.await(10, TimeUnit.SECONDS));
+        // Later changes go to a new journal, including ones superseding what is in the checkpoint
+        areas.get(0).name = "Changed after rotation";
+        repo.save(List.of(areas.get(0)));
+        var removed = areas.remove(1);
+        repo.remove(removed);
+        var added = BinaryAreaRepositoryTest.createArea("Added after rotation", -100, 0, -100, -50, 10, -50);
+        areas.add(added);
+        repo.save(List.of(added));
+        Assertions.assertTrue(Files.exists(wal));
+
+        // Take a copy of both files, as if we crashed right now
+        var crashDir = Files.createDirectories(this.dataDir.resolve("crash"));
+        Files.copy(wal, crashDir.resolve("claims.wal"));
+        Files.copy(checkpoint, crashDir.resolve("claims.wal.checkpoint"));
+
+        // Recovery replays the checkpoint first, then the newer journal on top of it
+        var recoveredBase = new InMemoryAreaRepository(new ArrayList<>());
+        var recovered = byId(new JournalingAreaRepository(recoveredBase, crashDir).load());
+        assertAreas(areas, recovered);
+        assertAreas(areas, byId(recoveredBase.areas));
+        Assertions.assertFalse(Files.exists(crashDir.resolve("claims.wal")));
+        Assertions.assertFalse(Files.exists(crashDir.resolve("claims.wal.checkpoint")));
+
+        // Once the delegate catches up, closing passes on everything else and cleans up both files
+        base.release.countDown();
+        repo.close();
+        Assertions.assertFalse(Files.exists(checkpoint));
+        Assertions.assertFalse(Files.exists(wal));
+        assertAreas(areas, byId(base.areas));
+    }
+
+    @Test
+    public void testRequeueAfterFailedCheckpoint() throws Exception {
+        var base = new FailingRepository();
+        var a = BinaryAreaRepositoryTest.createArea("A", 0, 0, 0, 10, 10, 10);
+        var repo = new JournalingAreaRepository(base, this.dataDir);
+        repo.load();
+        repo.save(List.of(a));
+        // Closing runs a final checkpoint, which fails
+        repo.close();
+        Assertions.assertTrue(base.areas.isEmpty());
+        Assertions.assertTrue(Files.exists(this.dataDir.resolve("claims.wal")), "Changes must be put back into the journal");
+        Assertions.assertFalse(Files.exists(this.dataDir.resolve("claims.wal.checkpoint")));
+
+        base.failing = false;
+        var loaded = new JournalingAreaRepository(base, this.dataDir).load();
+        Assertions.assertEquals(1, loaded.size());
+        BinaryAreaRepositoryTest.assertSameArea(a, loaded.iterator().next());
+        Assertions.assertEquals(1, base.areas.size());
+        Assertions.assertFalse(Files.exists(this.dataDir.resolve("claims.wal")));
+    }
+
+    @Test
+    public void testFailedRecoveryDoesNotBlockCheckpoints() throws Exception {
+        // Leave behind a checkpoint holding A, and a newer journal holding B, as if we crashed during a checkpoint
+        var a = BinaryAreaRepositoryTest.createArea("A", 0, 0, 0, 10, 10, 10);
+        var b = BinaryAreaRepositoryTest.createArea("B", 20, 0, 20, 30, 10, 30);
+        this.leaveJournal(this.dataDir.resolve("claims.wal.checkpoint"), a);
+        this.leaveJournal(this.dataDir.resolve("claims.wal"), b);
+
+        var base = new FailingRepository();
+        var repo = new JournalingAreaRepository(base, this.dataDir);
+        Assertions.assertEquals(Map.of(a.uid, "A", b.uid, "B"), namesOf(repo.load()));
+        // Recovered changes could not be passed on, but they are all kept in the journal
+        Assertions.assertTrue(base.areas.isEmpty());
+        Assertions.assertFalse(Files.exists(this.dataDir.resolve("claims.wal.checkpoint")), "Left-over checkpoint must be merged into the journal");
+        Assertions.assertTrue(Files.exists(this.dataDir.resolve("claims.wal")));
+
+        // Once the delegate works again, later checkpoints pass on everything
+        base.failing = false;
+        var c = BinaryAreaRepositoryTest.createArea("C", 40, 0, 40, 50, 10, 50);
+        repo.save(List.of(c));
+        repo.close();
+        Assertions.assertEquals(Map.of(a.uid, "A", b.uid, "B", c.uid, "C"), namesOf(base.areas));
+        Assertions.assertFalse(Files.exists(this.dataDir.resolve("claims.wal")));
+        Assertions.assertFalse(Files.exists(this.dataDir.resolve("claims.wal.checkpoint")));
+    }
+
+    @Test
+    public void testEmptyLeftOverCheckpointIsDropped() throws Exception {
+        // A checkpoint whose only record is torn, so that nothing is recovered from it
+        var checkpoint = this.dataDir.resolve("claims.wal.checkpoint");
+        this.leaveJournal(checkpoint, BinaryAreaRepositoryTest.createArea("Torn", 0, 0, 0, 10, 10, 10));
+        var bytes = Files.readAllBytes(checkpoint);
+        Files.write(checkpoint, Arrays.copyOf(bytes, bytes.length - 10));
+
+        var base = new InMemoryAreaRepository(new ArrayList<>());
+        var repo = new JournalingAreaRepository(base, this.dataDir);
+        Assertions.assertTrue(repo.load().isEmpty());
+        Assertions.assertFalse(Files.exists(checkpoint));
+        var a = BinaryAreaRepositoryTest.createArea("A", 0, 0, 0, 10, 10, 10);
+        repo.save(List.of(a));
+        repo.close();
+        Assertions.assertEquals(Map.of(a.uid, "A"), namesOf(base.areas));
+    }
+
+    /**
+     * Write a journal holding the given areas to the given file, by crashing a repository right after saving.
+     */
+    private void leaveJournal(Path target, Area... areas) throws Exception {
+        var scratch = Files.createTempDirectory(this.dataDir, "scratch");
+        var repo = new JournalingAreaRepository(new InMemoryAreaRepository(new ArrayList<>()), scratch);
+        repo.load();
+        repo.save(List.of(areas));
+        Files.copy(scratch.resolve("claims.wal"), target);
+    }
+
+    private static Map<UUID, String> namesOf(Collection<Area> areas) {
+        return areas.stream().collect(Collectors.toMap(a -> a.uid, a -> a.name));
+    }
+
+    private static Map<UUID, Area> byId(Collection<Area> areas) {
+        return areas.stream().collect(Collectors.toMap(a -> a.uid, a -> a));
+    }
+
+    private static void assertAreas(List<Area> expected, Map<UUID, Area> actual) {
+        Assertions.assertEquals(expected.size(), actual.size());
+        for (var area : expected) {
+            BinaryAreaRepositoryTest.assertSameArea(area, actual.get(area.uid));
+        }
+    }
+
+    /**
+     * Repository that does not finish any save until released.
+     */
+    private static final class BlockingRepository extends InMemoryAreaRepository {
+
+        final CountDownLatch started = new CountDownLatch(1), release = new CountDownLatch(1);
+
+        BlockingRepository() {
+            super(new ArrayList<>());
+        }
+
+        @Override
+        public void save(Collection<Area> areas) {
+            this.started.countDown();
+            try {
+                this.release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.save(areas);
+        }
+    }
+
+    /**
+     * Repository that fails to save until told otherwise.
+     */
+    private static final class FailingRepository extends InMemoryAreaRepository {
+
+        volatile boolean failing = true;
+
+        FailingRepository() {
+            super(new ArrayList<>());
+        }
+
+        @Override
+        public void save(Collection<Area> areas) {
+            if (this.failing) {
+                throw new UncheckedIOException(new IOException("Disk full"));
+            }
+            super.save(areas);
+        }
+    }
+}